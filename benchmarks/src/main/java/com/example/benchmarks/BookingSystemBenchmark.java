@@ -0,0 +1,100 @@
+package com.example.benchmarks;
+
+import com.example.Booking;
+import com.example.BookingSystem;
+import com.example.InMemoryRoomRepository;
+import com.example.NotificationService;
+import com.example.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingSystemBenchmark {
+
+    private static final LocalDateTime CURRENT_TIME = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int SLOT_MINUTES = 30;
+
+    @Param({"10", "1000"})
+    int rooms;
+
+    @Param({"10", "1000"})
+    int bookingsPerRoom;
+
+    private InMemoryRoomRepository repository;
+    private BookingSystem bookingSystem;
+    private Room busiestRoom;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryRoomRepository();
+        for (int r = 0; r < rooms; r++) {
+            Room room = new Room("room_" + r, "Rum " + r);
+            // Varannan halvtimme är bokad, så att det finns luckor att boka i
+            for (int b = 0; b < bookingsPerRoom; b++) {
+                LocalDateTime start = slot(2 * b);
+                room.addBooking(new Booking("booking_" + r + "_" + b, room.getId(), start, start.plusMinutes(SLOT_MINUTES - 1)));
+            }
+            repository.save(room);
+        }
+        busiestRoom = repository.findById("room_0").orElseThrow();
+        bookingSystem = new BookingSystem(() -> CURRENT_TIME, repository, new NoOpNotificationService());
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        LocalDateTime start = slot(random.nextInt(2 * bookingsPerRoom));
+        return busiestRoom.isAvailable(start, start.plusMinutes(SLOT_MINUTES - 1));
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms() {
+        LocalDateTime start = slot(random.nextInt(2 * bookingsPerRoom));
+        return bookingSystem.getAvailableRooms(start, start.plusMinutes(SLOT_MINUTES - 1));
+    }
+
+    @Benchmark
+    public boolean bookAndCancel() {
+        String roomId = "room_" + random.nextInt(rooms);
+        LocalDateTime start = slot(2 * random.nextInt(bookingsPerRoom) + 1);
+        if (!bookingSystem.bookRoom(roomId, start, start.plusMinutes(SLOT_MINUTES - 1))) {
+            return false;
+        }
+        Booking booking = repository.findById(roomId).orElseThrow().getBookingsBetween(start, start).getFirst();
+        return bookingSystem.cancelBooking(booking.getId());
+    }
+
+    private static LocalDateTime slot(int index) {
+        return CURRENT_TIME.plusHours(1).plusMinutes((long) SLOT_MINUTES * index);
+    }
+
+    static final class NoOpNotificationService implements NotificationService {
+        @Override
+        public void sendBookingConfirmation(Booking booking) {
+        }
+
+        @Override
+        public void sendCancellationConfirmation(Booking booking) {
+        }
+    }
+}
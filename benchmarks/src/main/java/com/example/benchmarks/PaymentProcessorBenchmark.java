@@ -0,0 +1,62 @@
+package com.example.benchmarks;
+
+import com.example.payment.EmailService;
+import com.example.payment.PaymentApi;
+import com.example.payment.PaymentApiResponse;
+import com.example.payment.PaymentCredentials;
+import com.example.payment.PaymentProcessor;
+import com.example.payment.PaymentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentProcessorBenchmark {
+
+    private static final PaymentApiResponse SUCCESS = new PaymentApiResponse(true);
+    private static final PaymentApiResponse FAILURE = new PaymentApiResponse(false);
+
+    private PaymentProcessor paymentProcessor;
+    private double amount = 1;
+
+    @Setup
+    public void setUp() {
+        // Varje tionde debitering nekas, så att båda grenarna i processPayment mäts
+        PaymentApi paymentApi = (apiKey, amount) -> ((long) amount) % 10 == 0 ? FAILURE : SUCCESS;
+        PaymentRepository paymentRepository = (amount, status) -> true;
+        EmailService emailService = (email, amount) -> {
+        };
+        PaymentCredentials credentials = new PaymentCredentials() {
+            @Override
+            public String getApiKey() {
+                return "api_key";
+            }
+
+            @Override
+            public String getEmailAddress() {
+                return "kund@example.com";
+            }
+        };
+        paymentProcessor = new PaymentProcessor(paymentApi, paymentRepository, credentials, emailService);
+    }
+
+    @Benchmark
+    public boolean processPayment() {
+        amount = amount % 1000 + 1;
+        return paymentProcessor.processPayment(amount);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.benchmarks;
+
+import com.example.Booking;
+import com.example.InMemoryRoomRepository;
+import com.example.Room;
+import com.example.ShardedBookingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ShardedBookingSystemBenchmark {
+
+    private static final LocalDateTime CURRENT_TIME = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final int ROOMS = 1000;
+    private static final int SLOT_MINUTES = 30;
+
+    @Param({"1", "2", "4", "8"})
+    int shards;
+
+    private InMemoryRoomRepository repository;
+    private ShardedBookingSystem bookingSystem;
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryRoomRepository();
+        for (int r = 0; r < ROOMS; r++) {
+            repository.save(new Room("room_" + r, "Rum " + r));
+        }
+        bookingSystem = new ShardedBookingSystem(() -> CURRENT_TIME, repository,
+                new BookingSystemBenchmark.NoOpNotificationService(), shards);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        bookingSystem.close();
+    }
+
+    @Benchmark
+    public boolean bookAndCancel() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String roomId = "room_" + random.nextInt(ROOMS);
+        LocalDateTime start = CURRENT_TIME.plusHours(1).plusMinutes((long) SLOT_MINUTES * random.nextInt(10_000));
+        if (!bookingSystem.bookRoom(roomId, start, start.plusMinutes(SLOT_MINUTES - 1)).join()) {
+            return false;
+        }
+        Booking booking = repository.findById(roomId).orElseThrow().getBookingsBetween(start, start).getFirst();
+        return bookingSystem.cancelBooking(booking.getId()).join();
+    }
+}
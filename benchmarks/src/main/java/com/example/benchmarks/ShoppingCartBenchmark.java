@@ -0,0 +1,44 @@
+package com.example.benchmarks;
+
+import com.example.shop.Item;
+import com.example.shop.ShoppingCart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShoppingCartBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int cartSize;
+
+    private ShoppingCart cart;
+
+    @Setup
+    public void setUp() {
+        cart = new ShoppingCart();
+        for (int i = 0; i < cartSize; i++) {
+            cart.items.add(new Item(1 + i % 500, 1 + i % 5));
+        }
+    }
+
+    @Benchmark
+    public double calculateTotalPrice() {
+        return cart.calculateTotalPrice(cart.getItems());
+    }
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Decorates a {@link NotificationService} so that sending only puts the notification on a bounded
+ * queue. A virtual thread drains the queue in batches and sends each batch concurrently on
+ * virtual threads, so the caller never waits for the underlying service.
+ */
+public class AsyncNotificationService implements NotificationService, AutoCloseable {
+
+    public enum BackPressure {
+        /** Waits for room in the queue. */
+        BLOCK,
+        /** Discards the notification when the queue is full. */
+        DROP,
+        /** Moves the notification to an unbounded overflow queue that is drained after the main queue. */
+        SPILL
+    }
+
+    private enum Type {
+        BOOKING, CANCELLATION
+    }
+
+    private record Notification(Type type, Booking booking) {
+    }
+
+    private final NotificationService delegate;
+    private final BlockingQueue<Notification> queue;
+    private final Queue<Notification> spill = new ConcurrentLinkedQueue<>();
+    private final int batchSize;
+    private final BackPressure backPressure;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread drainer;
+    // Läses-låset hålls medan en notifiering läggs i kön, så att close inte kan hinna emellan
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+
+    public AsyncNotificationService(NotificationService delegate, int capacity, int batchSize, BackPressure backPressure) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.backPressure = backPressure;
+        this.drainer = Thread.ofVirtual().name("notification-drainer").start(this::drain);
+    }
+
+    @Override
+    public void sendBookingConfirmation(Booking booking) throws NotificationException {
+        enqueue(new Notification(Type.BOOKING, booking));
+    }
+
+    @Override
+    public void sendCancellationConfirmation(Booking booking) throws NotificationException {
+        enqueue(new Notification(Type.CANCELLATION, booking));
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    public int getPendingCount() {
+        return queue.size() + spill.size();
+    }
+
+    /**
+     * Stops accepting notifications and waits until everything already queued has been sent. Callers
+     * already waiting for room under {@link BackPressure#BLOCK} get their notification queued first.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        drainer.join();
+        senders.close();
+    }
+
+    private void enqueue(Notification notification) throws NotificationException {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new NotificationException("Notification queue is closed");
+            }
+            offer(notification);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private void offer(Notification notification) throws NotificationException {
+        switch (backPressure) {
+            case BLOCK -> {
+                try {
+                    queue.put(notification);
+                    queued.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new NotificationException("Interrupted while waiting for notification queue");
+                }
+            }
+            case DROP -> {
+                if (queue.offer(notification)) {
+                    queued.increment();
+                } else {
+                    dropped.increment();
+                }
+            }
+            case SPILL -> {
+                if (!queue.offer(notification)) {
+                    spill.add(notification);
+                }
+                queued.increment();
+            }
+        }
+    }
+
+    private void drain() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty() || !spill.isEmpty()) {
+            try {
+                Notification first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            Notification overflow;
+            while (batch.size() < batchSize && (overflow = spill.poll()) != null) {
+                batch.add(overflow);
+            }
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Notification> batch) {
+        List<Future<?>> pending = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            pending.add(senders.submit(() -> send(notification)));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                failed.increment();
+            }
+        }
+    }
+
+    private void send(Notification notification) {
+        try {
+            switch (notification.type()) {
+                case BOOKING -> delegate.sendBookingConfirmation(notification.booking());
+                case CANCELLATION -> delegate.sendCancellationConfirmation(notification.booking());
+            }
+            sent.increment();
+        } catch (NotificationException | RuntimeException e) {
+            failed.increment();
+        }
+    }
+}
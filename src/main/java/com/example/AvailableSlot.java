@@ -0,0 +1,7 @@
+package com.example;
+
+import java.time.LocalDateTime;
+
+public record AvailableSlot(String roomId, LocalDateTime startTime, LocalDateTime endTime) {
+
+}
@@ -1,26 +1,62 @@
 package com.example;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.UUID;
 
 public class Booking {
-    private final String id;
+    private static final byte LONG_ID = 0;
+    private static final byte UUID_ID = 1;
+    private static final byte TEXT_ID = 2;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final byte idKind;
+    private final long idHigh;
+    private final long idLow;
+    private final String idText;
     private final String roomId;
-    private final LocalDateTime startTime;
-    private final LocalDateTime endTime;
+    private final long startSecond;
+    private final int startNano;
+    private final long endSecond;
+    private final int endNano;
 
     public Booking(String id, String roomId, LocalDateTime startTime, LocalDateTime endTime) {
-        this.id = id;
+        if (isCompactLong(id)) {
+            this.idKind = LONG_ID;
+            this.idHigh = 0;
+            this.idLow = Long.parseUnsignedLong(id, 16);
+            this.idText = null;
+        } else {
+            UUID uuid = compactUuid(id);
+            this.idKind = uuid == null ? TEXT_ID : UUID_ID;
+            this.idHigh = uuid == null ? 0 : uuid.getMostSignificantBits();
+            this.idLow = uuid == null ? 0 : uuid.getLeastSignificantBits();
+            this.idText = uuid == null ? id : null;
+        }
         this.roomId = roomId;
-        this.startTime = startTime;
-        this.endTime = endTime;
+        this.startSecond = startTime.toEpochSecond(ZoneOffset.UTC);
+        this.startNano = startTime.getNano();
+        this.endSecond = endTime.toEpochSecond(ZoneOffset.UTC);
+        this.endNano = endTime.getNano();
     }
 
     public boolean overlaps(LocalDateTime start, LocalDateTime end) {
-        return !endTime.isBefore(start) && !startTime.isAfter(end);
+        return overlaps(start.toEpochSecond(ZoneOffset.UTC), start.getNano(),
+                end.toEpochSecond(ZoneOffset.UTC), end.getNano());
+    }
+
+    boolean overlaps(long fromSecond, int fromNano, long toSecond, int toNano) {
+        return compare(endSecond, endNano, fromSecond, fromNano) >= 0
+                && compare(startSecond, startNano, toSecond, toNano) <= 0;
     }
 
     public String getId() {
-        return id;
+        return switch (idKind) {
+            case LONG_ID -> HEX.toHexDigits(idLow);
+            case UUID_ID -> new UUID(idHigh, idLow).toString();
+            default -> idText;
+        };
     }
 
     public String getRoomId() {
@@ -28,10 +64,92 @@ public class Booking {
     }
 
     public LocalDateTime getStartTime() {
-        return startTime;
+        return LocalDateTime.ofEpochSecond(startSecond, startNano, ZoneOffset.UTC);
     }
 
     public LocalDateTime getEndTime() {
-        return endTime;
+        return LocalDateTime.ofEpochSecond(endSecond, endNano, ZoneOffset.UTC);
+    }
+
+    Object idKey() {
+        return switch (idKind) {
+            case LONG_ID -> idLow;
+            case UUID_ID -> new UUID(idHigh, idLow);
+            default -> idText;
+        };
+    }
+
+    static Object idKey(String id) {
+        if (isCompactLong(id)) {
+            return Long.parseUnsignedLong(id, 16);
+        }
+        UUID uuid = compactUuid(id);
+        return uuid != null ? uuid : id;
+    }
+
+    long startSecond() {
+        return startSecond;
+    }
+
+    int startNano() {
+        return startNano;
+    }
+
+    long endSecond() {
+        return endSecond;
+    }
+
+    int endNano() {
+        return endNano;
+    }
+
+    int compareStartTo(Booking other) {
+        return compare(startSecond, startNano, other.startSecond, other.startNano);
+    }
+
+    int compareIdTo(Booking other) {
+        if (idKind != other.idKind) {
+            return Byte.compare(idKind, other.idKind);
+        }
+        if (idKind != TEXT_ID) {
+            int cmp = Long.compareUnsigned(idHigh, other.idHigh);
+            return cmp != 0 ? cmp : Long.compareUnsigned(idLow, other.idLow);
+        }
+        if (idText == null || other.idText == null) {
+            return idText == null ? (other.idText == null ? 0 : -1) : 1;
+        }
+        return idText.compareTo(other.idText);
+    }
+
+    static int compare(long second, int nano, long otherSecond, int otherNano) {
+        int cmp = Long.compare(second, otherSecond);
+        return cmp != 0 ? cmp : Integer.compare(nano, otherNano);
+    }
+
+    private static boolean isCompactLong(String id) {
+        // Id:n från SnowflakeBookingIdGenerator är exakt 16 gemena hexsiffror
+        if (id == null || id.length() != 16) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static UUID compactUuid(String id) {
+        // Bara kanoniska UUID:n lagras som två long, så att getId() ger tillbaka exakt samma sträng
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
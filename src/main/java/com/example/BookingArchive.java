@@ -0,0 +1,19 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cold storage for bookings that have ended and no longer take part in availability checks.
+ */
+public interface BookingArchive {
+    void archive(List<Booking> bookings);
+    Optional<Booking> findById(String bookingId);
+    List<Booking> findByRoom(String roomId);
+
+    /**
+     * Returns the room's archived bookings that overlap the period, boundaries included, in start time order.
+     */
+    List<Booking> findByRoomBetween(String roomId, LocalDateTime from, LocalDateTime to);
+}
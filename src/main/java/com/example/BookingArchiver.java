@@ -0,0 +1,61 @@
+package com.example;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Periodically moves bookings that have ended out of the rooms of a {@link BookingSystem} and into
+ * a {@link BookingArchive}, so the live rooms only hold current and future bookings.
+ */
+public class BookingArchiver implements AutoCloseable {
+
+    private final BookingSystem bookingSystem;
+    private final BookingArchive archive;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+
+    public BookingArchiver(BookingSystem bookingSystem, BookingArchive archive, long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        this.bookingSystem = bookingSystem;
+        this.archive = archive;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("booking-archiver").factory());
+        scheduler.scheduleWithFixedDelay(this::run, interval, interval, unit);
+    }
+
+    /**
+     * Archives every booking that has ended and returns how many were moved.
+     */
+    public int archiveNow() {
+        int count = bookingSystem.archiveFinishedBookings(archive);
+        archived.add(count);
+        return count;
+    }
+
+    public long getArchivedCount() {
+        return archived.sum();
+    }
+
+    public long getFailedRunCount() {
+        return failedRuns.sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    private void run() {
+        try {
+            archiveNow();
+        } catch (RuntimeException e) {
+            // Ett misslyckat varv får inte stoppa schemat, nästa varv försöker igen
+            failedRuns.increment();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps booking ids to their bookings, and through {@link Booking#getRoomId()} to their rooms,
+ * so a booking can be located without scanning every room.
+ */
+class BookingIndex {
+
+    private final Map<Object, Booking> bookingsById = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    synchronized void load(Collection<Room> rooms) {
+        if (loaded) {
+            return;
+        }
+        for (Room room : rooms) {
+            for (Booking booking : room.getBookings()) {
+                bookingsById.putIfAbsent(booking.idKey(), booking);
+            }
+        }
+        loaded = true;
+    }
+
+    void add(Booking booking) {
+        bookingsById.put(booking.idKey(), booking);
+    }
+
+    void remove(String bookingId) {
+        bookingsById.remove(Booking.idKey(bookingId));
+    }
+
+    Booking find(String bookingId) {
+        return bookingsById.get(Booking.idKey(bookingId));
+    }
+
+    /**
+     * Looks the booking up in the index, loading it from the repository first if needed. Once loaded
+     * the index is trusted, so a miss returns {@code null} without touching the repository; bookings
+     * added to the rooms behind the booking system's back after that are not found.
+     */
+    Booking locate(String bookingId, RoomRepository roomRepository) {
+        if (!loaded) {
+            load(roomRepository.findAll());
+        }
+        return find(bookingId);
+    }
+}
@@ -0,0 +1,240 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable AVL tree of bookings ordered by start time, where every node also keeps the latest end
+ * time of its subtree. Overlap checks are O(log n). Inserts and removals return a new tree that
+ * shares every node off the changed path with the old one, so a tree can be read from any number
+ * of threads while a writer builds the next version.
+ */
+final class BookingIntervalTree {
+
+    static final BookingIntervalTree EMPTY = new BookingIntervalTree(null, 0);
+
+    private static final Comparator<Booking> ORDER = ((Comparator<Booking>) Booking::compareStartTo)
+            .thenComparing(Booking::compareIdTo);
+
+    private final Node root;
+    private final int size;
+
+    private static final class Node {
+        final Booking booking;
+        final Node left;
+        final Node right;
+        final int height;
+        final long maxEndSecond;
+        final int maxEndNano;
+
+        Node(Booking booking, Node left, Node right) {
+            this.booking = booking;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            long second = booking.endSecond();
+            int nano = booking.endNano();
+            if (left != null && !left.endsBefore(second, nano)) {
+                second = left.maxEndSecond;
+                nano = left.maxEndNano;
+            }
+            if (right != null && !right.endsBefore(second, nano)) {
+                second = right.maxEndSecond;
+                nano = right.maxEndNano;
+            }
+            this.maxEndSecond = second;
+            this.maxEndNano = nano;
+        }
+
+        boolean endsBefore(long second, int nano) {
+            return Booking.compare(maxEndSecond, maxEndNano, second, nano) < 0;
+        }
+    }
+
+    private BookingIntervalTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    BookingIntervalTree insert(Booking booking) {
+        Node inserted = insert(root, booking);
+        return inserted == root ? this : new BookingIntervalTree(inserted, size + 1);
+    }
+
+    BookingIntervalTree remove(Booking booking) {
+        Node removed = remove(root, booking);
+        return removed == root ? this : new BookingIntervalTree(removed, size - 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a booking that overlaps the window using the inclusive semantics of
+     * {@link Booking#overlaps(LocalDateTime, LocalDateTime)}, or {@code null} if there is none.
+     */
+    Booking findOverlapping(LocalDateTime start, LocalDateTime end) {
+        long fromSecond = start.toEpochSecond(ZoneOffset.UTC);
+        int fromNano = start.getNano();
+        long toSecond = end.toEpochSecond(ZoneOffset.UTC);
+        int toNano = end.getNano();
+        Node node = root;
+        while (node != null) {
+            if (node.booking.overlaps(fromSecond, fromNano, toSecond, toNano)) {
+                return node.booking;
+            }
+            if (node.left != null && !node.left.endsBefore(fromSecond, fromNano)) {
+                node = node.left;
+            } else if (Booking.compare(node.booking.startSecond(), node.booking.startNano(), toSecond, toNano) > 0) {
+                return null;
+            } else {
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    List<Booking> findAllOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Booking> result = new ArrayList<>();
+        collectOverlapping(root, start.toEpochSecond(ZoneOffset.UTC), start.getNano(),
+                end.toEpochSecond(ZoneOffset.UTC), end.getNano(), result);
+        return result;
+    }
+
+    /**
+     * Returns the bookings that end before {@code time}. Only bookings that start before it can
+     * qualify, so the walk stops at the first booking starting at or after {@code time}.
+     */
+    List<Booking> findAllEndingBefore(LocalDateTime time) {
+        List<Booking> result = new ArrayList<>();
+        collectEndingBefore(root, time.toEpochSecond(ZoneOffset.UTC), time.getNano(), result);
+        return result;
+    }
+
+    List<Booking> toList() {
+        List<Booking> result = new ArrayList<>(size);
+        collectAll(root, result);
+        return result;
+    }
+
+    private static void collectOverlapping(Node node, long fromSecond, int fromNano, long toSecond, int toNano,
+                                           List<Booking> result) {
+        if (node == null || node.endsBefore(fromSecond, fromNano)) {
+            return;
+        }
+        collectOverlapping(node.left, fromSecond, fromNano, toSecond, toNano, result);
+        if (Booking.compare(node.booking.startSecond(), node.booking.startNano(), toSecond, toNano) > 0) {
+            return;
+        }
+        if (node.booking.overlaps(fromSecond, fromNano, toSecond, toNano)) {
+            result.add(node.booking);
+        }
+        collectOverlapping(node.right, fromSecond, fromNano, toSecond, toNano, result);
+    }
+
+    private static boolean collectEndingBefore(Node node, long second, int nano, List<Booking> result) {
+        if (node == null) {
+            return true;
+        }
+        if (!collectEndingBefore(node.left, second, nano, result)) {
+            return false;
+        }
+        if (Booking.compare(node.booking.startSecond(), node.booking.startNano(), second, nano) >= 0) {
+            return false;
+        }
+        if (Booking.compare(node.booking.endSecond(), node.booking.endNano(), second, nano) < 0) {
+            result.add(node.booking);
+        }
+        return collectEndingBefore(node.right, second, nano, result);
+    }
+
+    private static void collectAll(Node node, List<Booking> result) {
+        if (node == null) {
+            return;
+        }
+        collectAll(node.left, result);
+        result.add(node.booking);
+        collectAll(node.right, result);
+    }
+
+    // Returnerar samma nod när inget ändrades, så att anroparen ser att trädet är oförändrat
+    private static Node insert(Node node, Booking booking) {
+        if (node == null) {
+            return new Node(booking, null, null);
+        }
+        int cmp = ORDER.compare(booking, node.booking);
+        if (cmp < 0) {
+            Node left = insert(node.left, booking);
+            return left == node.left ? node : balance(node.booking, left, node.right);
+        } else if (cmp > 0) {
+            Node right = insert(node.right, booking);
+            return right == node.right ? node : balance(node.booking, node.left, right);
+        }
+        return node;
+    }
+
+    private static Node remove(Node node, Booking booking) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = ORDER.compare(booking, node.booking);
+        if (cmp < 0) {
+            Node left = remove(node.left, booking);
+            return left == node.left ? node : balance(node.booking, left, node.right);
+        } else if (cmp > 0) {
+            Node right = remove(node.right, booking);
+            return right == node.right ? node : balance(node.booking, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.booking, node.left, removeMin(node.right));
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.booking, removeMin(node.left), node.right);
+    }
+
+    private static Node balance(Booking booking, Node left, Node right) {
+        int balance = height(left) - height(right);
+        if (balance > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left.booking, left.left, left.right);
+            }
+            return rotateRight(booking, left, right);
+        }
+        if (balance < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right.booking, right.left, right.right);
+            }
+            return rotateLeft(booking, left, right);
+        }
+        return new Node(booking, left, right);
+    }
+
+    private static Node rotateRight(Booking booking, Node left, Node right) {
+        return new Node(left.booking, left.left, new Node(booking, left.right, right));
+    }
+
+    private static Node rotateLeft(Booking booking, Node left, Node right) {
+        return new Node(right.booking, new Node(booking, left, right.left), right.right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
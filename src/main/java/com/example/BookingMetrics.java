@@ -0,0 +1,34 @@
+package com.example;
+
+public interface BookingMetrics {
+
+    enum Operation {
+        BOOK_ROOM, BOOK_ROOMS, BOOK_RECURRING_ROOM, CANCEL_BOOKING, CANCEL_RECURRING_BOOKING, GET_AVAILABLE_ROOMS
+    }
+
+    BookingMetrics NONE = new BookingMetrics() {
+        @Override
+        public void recordLatency(Operation operation, long nanos) {
+        }
+
+        @Override
+        public void recordRejection(Operation operation) {
+        }
+
+        @Override
+        public void recordConflict() {
+        }
+
+        @Override
+        public void recordNotificationFailure() {
+        }
+    };
+
+    void recordLatency(Operation operation, long nanos);
+
+    void recordRejection(Operation operation);
+
+    void recordConflict();
+
+    void recordNotificationFailure();
+}
@@ -0,0 +1,12 @@
+package com.example;
+
+public record BookingResult(BookingRequest request, Status status, Booking booking) {
+
+    public enum Status {
+        BOOKED, UNAVAILABLE, ROOM_NOT_FOUND, INVALID
+    }
+
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+}
@@ -1,23 +1,114 @@
 package com.example;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BookingSystem {
+    private static final int LOCK_STRIPES = 64;
+
     private final TimeProvider timeProvider;
     private final RoomRepository roomRepository;
     private final NotificationService notificationService;
+    private final BookingMetrics metrics;
+    private final BookingIdGenerator idGenerator;
+    private final BookingIndex bookingIndex;
+    private final OccupancyIndex occupancyIndex = new OccupancyIndex();
+    private final Lock[] roomLocks = new Lock[LOCK_STRIPES];
 
     public BookingSystem(TimeProvider timeProvider,
                          RoomRepository roomRepository,
                          NotificationService notificationService) {
+        this(timeProvider, roomRepository, notificationService, BookingMetrics.NONE);
+    }
+
+    public BookingSystem(TimeProvider timeProvider,
+                         RoomRepository roomRepository,
+                         NotificationService notificationService,
+                         BookingMetrics metrics) {
+        this(timeProvider, roomRepository, notificationService, metrics, SnowflakeBookingIdGenerator.shared());
+    }
+
+    public BookingSystem(TimeProvider timeProvider,
+                         RoomRepository roomRepository,
+                         NotificationService notificationService,
+                         BookingMetrics metrics,
+                         BookingIdGenerator idGenerator) {
+        this(timeProvider, roomRepository, notificationService, metrics, idGenerator, null);
+    }
+
+    /**
+     * @param bookingIndex index of booking ids, shared with the other shards of a {@link ShardedBookingSystem},
+     *                     or {@code null} for an index of this system's own
+     */
+    BookingSystem(TimeProvider timeProvider,
+                  RoomRepository roomRepository,
+                  NotificationService notificationService,
+                  BookingMetrics metrics,
+                  BookingIdGenerator idGenerator,
+                  BookingIndex bookingIndex) {
         this.timeProvider = timeProvider;
         this.roomRepository = roomRepository;
         this.notificationService = notificationService;
+        this.metrics = metrics;
+        this.idGenerator = idGenerator;
+        this.bookingIndex = bookingIndex != null ? bookingIndex : new BookingIndex();
+        for (int i = 0; i < roomLocks.length; i++) {
+            roomLocks[i] = new ReentrantLock();
+        }
     }
 
     public boolean bookRoom(String roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        long start = System.nanoTime();
+        try {
+            boolean booked = book(roomId, startTime, endTime);
+            if (!booked) {
+                metrics.recordConflict();
+            }
+            return booked;
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(BookingMetrics.Operation.BOOK_ROOM);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.BOOK_ROOM, System.nanoTime() - start);
+        }
+    }
+
+    private boolean book(String roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        validateBooking(roomId, startTime, endTime);
+
+        Booking booking;
+        Lock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            // Rummet läses under låset, eftersom ett lager kan ge en ny kopia vid varje uppslag
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new IllegalArgumentException("Rummet existerar inte"));
+            if (!room.isAvailable(startTime, endTime)) {
+                return false;
+            }
+
+            booking = new Booking(idGenerator.nextId(), roomId, startTime, endTime);
+            room.addBooking(booking);
+            roomRepository.saveChanges(room);
+            bookingIndex.add(booking);
+            occupancyIndex.add(booking);
+        } finally {
+            lock.unlock();
+        }
+
+        sendBookingConfirmation(booking);
+
+        return true;
+    }
+
+    private void validateBooking(String roomId, LocalDateTime startTime, LocalDateTime endTime) {
         if (startTime == null || endTime == null || roomId == null) {
             throw new IllegalArgumentException("Bokning kräver giltiga start- och sluttider samt rum-id");
         }
@@ -29,28 +120,163 @@ public class BookingSystem {
         if (endTime.isBefore(startTime)) {
             throw new IllegalArgumentException("Sluttid måste vara efter starttid");
         }
+    }
 
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new IllegalArgumentException("Rummet existerar inte"));
+    public List<BookingResult> bookRooms(Collection<BookingRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            return bookAll(requests);
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(BookingMetrics.Operation.BOOK_ROOMS);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.BOOK_ROOMS, System.nanoTime() - start);
+        }
+    }
 
-        if (!room.isAvailable(startTime, endTime)) {
-            return false;
+    private List<BookingResult> bookAll(Collection<BookingRequest> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Bokningsförfrågningar kan inte vara null");
+        }
+
+        List<BookingRequest> ordered = new ArrayList<>(requests);
+        BookingResult[] results = new BookingResult[ordered.size()];
+        LocalDateTime currentTime = timeProvider.getCurrentTime();
+        Map<String, List<Integer>> requestsByRoom = new LinkedHashMap<>();
+
+        for (int i = 0; i < ordered.size(); i++) {
+            BookingRequest request = ordered.get(i);
+            if (isValid(request, currentTime)) {
+                requestsByRoom.computeIfAbsent(request.roomId(), roomId -> new ArrayList<>()).add(i);
+            } else {
+                results[i] = new BookingResult(request, BookingResult.Status.INVALID, null);
+            }
+        }
+
+        List<Booking> booked = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> group : requestsByRoom.entrySet()) {
+            booked.addAll(bookGroup(group.getKey(), group.getValue(), ordered, results));
         }
 
-        Booking booking = new Booking(UUID.randomUUID().toString(), roomId, startTime, endTime);
-        room.addBooking(booking);
-        roomRepository.save(room);
+        for (Booking booking : booked) {
+            sendBookingConfirmation(booking);
+        }
 
+        return List.of(results);
+    }
+
+    /**
+     * Books the same period every day or week up to and including {@code until}, except on the given
+     * dates. The series is stored as a single rule in the room.
+     */
+    public boolean bookRecurringRoom(String roomId, LocalDateTime startTime, LocalDateTime endTime,
+                                     RecurringBooking.Recurrence recurrence, LocalDate until,
+                                     Set<LocalDate> exceptions) {
+        long start = System.nanoTime();
         try {
-            notificationService.sendBookingConfirmation(booking);
-        } catch (NotificationException e) {
-            // Fortsätt även om notifieringen misslyckas
+            boolean booked = bookRecurring(roomId, startTime, endTime, recurrence, until, exceptions);
+            if (!booked) {
+                metrics.recordConflict();
+            }
+            return booked;
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(BookingMetrics.Operation.BOOK_RECURRING_ROOM);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.BOOK_RECURRING_ROOM, System.nanoTime() - start);
+        }
+    }
+
+    private boolean bookRecurring(String roomId, LocalDateTime startTime, LocalDateTime endTime,
+                                  RecurringBooking.Recurrence recurrence, LocalDate until,
+                                  Set<LocalDate> exceptions) {
+        validateBooking(roomId, startTime, endTime);
+
+        if (recurrence == null || until == null || exceptions == null) {
+            throw new IllegalArgumentException("Återkommande bokning kräver upprepning, slutdatum och undantag");
         }
 
+        if (until.isBefore(startTime.toLocalDate())) {
+            throw new IllegalArgumentException("Slutdatum kan inte vara före startdatum");
+        }
+
+        RecurringBooking series;
+        Lock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            Room room = roomRepository.findById(roomId)
+                    .orElseThrow(() -> new IllegalArgumentException("Rummet existerar inte"));
+            series = new RecurringBooking(idGenerator.nextId(), roomId, startTime, endTime,
+                    recurrence, until, exceptions);
+            if (!room.isAvailable(series)) {
+                return false;
+            }
+
+            room.addRecurringBooking(series);
+            roomRepository.saveChanges(room);
+        } finally {
+            lock.unlock();
+        }
+
+        // Bekräftelsen gäller seriens första tillfälle
+        sendBookingConfirmation(new Booking(series.getId(), roomId, startTime, endTime));
+
         return true;
     }
 
     public List<Room> getAvailableRooms(LocalDateTime startTime, LocalDateTime endTime) {
+        long start = System.nanoTime();
+        try {
+            return findAvailableRooms(startTime, endTime);
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(BookingMetrics.Operation.GET_AVAILABLE_ROOMS);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.GET_AVAILABLE_ROOMS, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the available rooms one page at a time, in the order of {@link RoomRepository#streamAll()}.
+     */
+    public List<Room> getAvailableRooms(LocalDateTime startTime, LocalDateTime endTime, int page, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            if (page < 0 || pageSize <= 0) {
+                throw new IllegalArgumentException("Ogiltig sida eller sidstorlek");
+            }
+            return streamAvailableRooms(startTime, endTime)
+                    .skip((long) page * pageSize)
+                    .limit(pageSize)
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            metrics.recordRejection(BookingMetrics.Operation.GET_AVAILABLE_ROOMS);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.GET_AVAILABLE_ROOMS, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Lazy variant of {@link #getAvailableRooms(LocalDateTime, LocalDateTime)}. Rooms are read from the
+     * repository and checked as the stream is consumed, so a caller that stops after a few results
+     * never touches the rest of the fleet.
+     */
+    public Stream<Room> streamAvailableRooms(LocalDateTime startTime, LocalDateTime endTime) {
+        validateAvailabilityWindow(startTime, endTime);
+
+        OccupancyIndex.Occupancy occupancy = occupancyIndex.query(startTime, endTime);
+        return roomRepository.streamAll()
+                .filter(room -> {
+                    boolean available = occupancy.isAvailable(room, startTime, endTime);
+                    if (!occupancyIndex.isIndexed(room)) {
+                        occupancyIndex.index(room);
+                    }
+                    return available;
+                });
+    }
+
+    private static void validateAvailabilityWindow(LocalDateTime startTime, LocalDateTime endTime) {
         if (startTime == null || endTime == null) {
             throw new IllegalArgumentException("Måste ange både start- och sluttid");
         }
@@ -58,43 +284,310 @@ public class BookingSystem {
         if (endTime.isBefore(startTime)) {
             throw new IllegalArgumentException("Sluttid måste vara efter starttid");
         }
+    }
 
-        return roomRepository.findAll().stream()
-                .filter(room -> room.isAvailable(startTime, endTime))
+    private List<Room> findAvailableRooms(LocalDateTime startTime, LocalDateTime endTime) {
+        validateAvailabilityWindow(startTime, endTime);
+
+        List<Room> rooms = roomRepository.findAll();
+        for (Room room : rooms) {
+            if (!occupancyIndex.isIndexed(room)) {
+                occupancyIndex.index(room);
+            }
+        }
+
+        OccupancyIndex.Occupancy occupancy = occupancyIndex.query(startTime, endTime);
+        return rooms.stream()
+                .filter(room -> occupancy.isAvailable(room, startTime, endTime))
                 .collect(Collectors.toList());
     }
 
     public boolean cancelBooking(String bookingId) {
+        long start = System.nanoTime();
+        try {
+            return cancel(bookingId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            metrics.recordRejection(BookingMetrics.Operation.CANCEL_BOOKING);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.CANCEL_BOOKING, System.nanoTime() - start);
+        }
+    }
+
+    public Optional<LocalDateTime> findNextAvailableSlot(String roomId, Duration duration, LocalDateTime after) {
+        validateSlotSearch(duration, after);
+        if (roomId == null) {
+            throw new IllegalArgumentException("Måste ange rum-id, längd och starttid");
+        }
+
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Rummet existerar inte"));
+        return Optional.ofNullable(room.findNextAvailableSlot(duration, earliestStart(after), null));
+    }
+
+    public Optional<AvailableSlot> findNextAvailableSlot(Collection<String> roomIds, Duration duration, LocalDateTime after) {
+        validateSlotSearch(duration, after);
+        if (roomIds == null) {
+            throw new IllegalArgumentException("Måste ange rum-id, längd och starttid");
+        }
+
+        LocalDateTime from = earliestStart(after);
+        AtomicReference<AvailableSlot> best = new AtomicReference<>();
+        roomIds.parallelStream()
+                // Rum som inte kan slå den bästa träffen hittills behöver inte sökas igenom
+                .filter(roomId -> !isEarliestPossible(best.get(), from))
+                .forEach(roomId -> roomRepository.findById(roomId).ifPresent(room -> {
+                    AvailableSlot current = best.get();
+                    LocalDateTime start = room.findNextAvailableSlot(duration, from,
+                            current == null ? null : current.startTime());
+                    if (start != null) {
+                        AvailableSlot found = new AvailableSlot(room.getId(), start, start.plus(duration));
+                        best.accumulateAndGet(found, BookingSystem::earlier);
+                    }
+                }));
+        return Optional.ofNullable(best.get());
+    }
+
+    /**
+     * Cancels every occurrence of a recurring booking that has not started yet. Occurrences that have
+     * started stay in the room as history, with the series ending at the last of them; a series that
+     * has not started at all is removed.
+     */
+    public boolean cancelRecurringBooking(String roomId, String bookingId) {
+        long start = System.nanoTime();
+        try {
+            return cancelRecurring(roomId, bookingId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            metrics.recordRejection(BookingMetrics.Operation.CANCEL_RECURRING_BOOKING);
+            throw e;
+        } finally {
+            metrics.recordLatency(BookingMetrics.Operation.CANCEL_RECURRING_BOOKING, System.nanoTime() - start);
+        }
+    }
+
+    private boolean cancelRecurring(String roomId, String bookingId) {
+        if (roomId == null || bookingId == null) {
+            throw new IllegalArgumentException("Måste ange rum-id och boknings-id");
+        }
+
+        RecurringBooking series;
+        Lock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            Optional<Room> room = roomRepository.findById(roomId)
+                    .filter(candidate -> candidate.hasRecurringBooking(bookingId));
+            if (room.isEmpty()) {
+                return false;
+            }
+
+            series = room.get().getRecurringBookings().stream()
+                    .filter(candidate -> candidate.getId().equals(bookingId))
+                    .findFirst()
+                    .orElseThrow();
+            RecurringBooking started = series.endingBefore(timeProvider.getCurrentTime());
+            if (started == series) {
+                throw new IllegalStateException("Serien har inga tillfällen kvar att avboka");
+            }
+            if (started == null) {
+                room.get().removeRecurringBooking(bookingId);
+            } else {
+                // Påbörjade tillfällen finns kvar; serien slutar med det senaste av dem
+                room.get().addRecurringBooking(started);
+            }
+            roomRepository.saveChanges(room.get());
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            notificationService.sendCancellationConfirmation(
+                    new Booking(series.getId(), roomId, series.getStartTime(), series.getEndTime()));
+        } catch (NotificationException e) {
+            // Fortsätt även om notifieringen misslyckas
+            metrics.recordNotificationFailure();
+        }
+
+        return true;
+    }
+
+    private boolean cancel(String bookingId) {
         if (bookingId == null) {
             throw new IllegalArgumentException("Boknings-id kan inte vara null");
         }
 
-        Optional<Room> roomWithBooking = roomRepository.findAll().stream()
-                .filter(room -> room.hasBooking(bookingId))
-                .findFirst();
+        Booking indexed = bookingIndex.locate(bookingId, roomRepository);
 
-        if (roomWithBooking.isEmpty()) {
+        if (indexed == null) {
             return false;
         }
 
-        Room room = roomWithBooking.get();
-        Booking booking = room.getBooking(bookingId);
+        Booking booking;
+        Lock lock = lockFor(indexed.getRoomId());
+        lock.lock();
+        try {
+            Optional<Room> roomWithBooking = roomRepository.findById(indexed.getRoomId())
+                    .filter(candidate -> candidate.hasBooking(bookingId));
 
-        if (booking.getStartTime().isBefore(timeProvider.getCurrentTime())) {
-            throw new IllegalStateException("Kan inte avboka påbörjad eller avslutad bokning");
-        }
+            if (roomWithBooking.isEmpty()) {
+                // Indexet pekar på en bokning som inte längre finns i rummet
+                bookingIndex.remove(bookingId);
+                return false;
+            }
+
+            Room room = roomWithBooking.get();
+            booking = room.getBooking(bookingId);
 
-        room.removeBooking(bookingId);
-        roomRepository.save(room);
+            if (booking.getStartTime().isBefore(timeProvider.getCurrentTime())) {
+                throw new IllegalStateException("Kan inte avboka påbörjad eller avslutad bokning");
+            }
+
+            room.removeBooking(bookingId);
+            roomRepository.saveChanges(room);
+            bookingIndex.remove(bookingId);
+            occupancyIndex.remove(room, booking);
+        } finally {
+            lock.unlock();
+        }
 
         try {
             notificationService.sendCancellationConfirmation(booking);
         } catch (NotificationException e) {
             // Fortsätt även om notifieringen misslyckas
+            metrics.recordNotificationFailure();
         }
 
         return true;
     }
+
+    private List<Booking> bookGroup(String roomId, List<Integer> indexes, List<BookingRequest> requests, BookingResult[] results) {
+        List<Booking> booked = new ArrayList<>();
+        Lock lock = lockFor(roomId);
+        lock.lock();
+        try {
+            Optional<Room> found = roomRepository.findById(roomId);
+            if (found.isEmpty()) {
+                for (int i : indexes) {
+                    results[i] = new BookingResult(requests.get(i), BookingResult.Status.ROOM_NOT_FOUND, null);
+                }
+                return booked;
+            }
+            Room room = found.get();
+            // Förfrågningar i samma grupp läggs till i rummet direkt och krockar därför även med varandra
+            for (int i : indexes) {
+                BookingRequest request = requests.get(i);
+                if (!room.isAvailable(request.startTime(), request.endTime())) {
+                    metrics.recordConflict();
+                    results[i] = new BookingResult(request, BookingResult.Status.UNAVAILABLE, null);
+                    continue;
+                }
+                Booking booking = new Booking(idGenerator.nextId(), room.getId(), request.startTime(), request.endTime());
+                room.addBooking(booking);
+                booked.add(booking);
+                results[i] = new BookingResult(request, BookingResult.Status.BOOKED, booking);
+            }
+
+            if (!booked.isEmpty()) {
+                roomRepository.saveChanges(room);
+                for (Booking booking : booked) {
+                    bookingIndex.add(booking);
+                    occupancyIndex.add(booking);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return booked;
+    }
+
+    private static boolean isValid(BookingRequest request, LocalDateTime currentTime) {
+        return request != null
+                && request.roomId() != null
+                && request.startTime() != null
+                && request.endTime() != null
+                && !request.startTime().isBefore(currentTime)
+                && !request.endTime().isBefore(request.startTime());
+    }
+
+    private void sendBookingConfirmation(Booking booking) {
+        try {
+            notificationService.sendBookingConfirmation(booking);
+        } catch (NotificationException e) {
+            // Fortsätt även om notifieringen misslyckas
+            metrics.recordNotificationFailure();
+        }
+    }
+
+    /**
+     * Moves every booking that ended before the current time from its room into the archive and
+     * returns how many bookings were moved. Finished bookings can never conflict with a new booking,
+     * so they only cost time and memory in the live rooms. A room's bookings are only removed once the
+     * archive has taken them, so an archive that fails leaves them in the room for the next run.
+     */
+    public int archiveFinishedBookings(BookingArchive archive) {
+        if (archive == null) {
+            throw new IllegalArgumentException("Måste ange arkiv");
+        }
+
+        LocalDateTime currentTime = timeProvider.getCurrentTime();
+        int archived = roomRepository.streamAll()
+                .mapToInt(room -> archiveFinishedBookings(room, archive, currentTime))
+                .sum();
+        occupancyIndex.pruneBefore(currentTime);
+        return archived;
+    }
+
+    private int archiveFinishedBookings(Room room, BookingArchive archive, LocalDateTime currentTime) {
+        Lock lock = lockFor(room.getId());
+        lock.lock();
+        try {
+            List<Booking> finished = room.getBookingsEndedBefore(currentTime);
+            if (finished.isEmpty()) {
+                return 0;
+            }
+
+            archive.archive(finished);
+            List<Booking> removed = room.removeBookings(finished);
+            roomRepository.saveChanges(room);
+            for (Booking booking : removed) {
+                bookingIndex.remove(booking.getId());
+                occupancyIndex.remove(room, booking);
+            }
+            return removed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void validateSlotSearch(Duration duration, LocalDateTime after) {
+        if (duration == null || after == null) {
+            throw new IllegalArgumentException("Måste ange rum-id, längd och starttid");
+        }
+
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Längden kan inte vara negativ");
+        }
+    }
+
+    private LocalDateTime earliestStart(LocalDateTime after) {
+        LocalDateTime currentTime = timeProvider.getCurrentTime();
+        return after.isBefore(currentTime) ? currentTime : after;
+    }
+
+    private static boolean isEarliestPossible(AvailableSlot slot, LocalDateTime from) {
+        return slot != null && !slot.startTime().isAfter(from);
+    }
+
+    private static AvailableSlot earlier(AvailableSlot current, AvailableSlot found) {
+        if (current == null || found.startTime().isBefore(current.startTime())) {
+            return found;
+        }
+        return current;
+    }
+
+    private Lock lockFor(String roomId) {
+        int hash = roomId.hashCode();
+        return roomLocks[(hash ^ (hash >>> 16)) & (roomLocks.length - 1)];
+    }
 }
 
 // Stödklasser och interface som behövs:
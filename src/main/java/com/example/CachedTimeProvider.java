@@ -0,0 +1,56 @@
+package com.example;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TimeProvider} that reads the clock on a background ticker instead of on every call.
+ * {@link #getCurrentTime()} and {@link #getEpochMillis()} are single volatile reads, at the cost of
+ * being up to one resolution behind the real clock.
+ */
+public class CachedTimeProvider implements TimeProvider, AutoCloseable {
+
+    private final Clock clock;
+    private final ScheduledExecutorService ticker;
+    private volatile LocalDateTime currentTime;
+    private volatile long epochMillis;
+
+    public CachedTimeProvider(long resolution, TimeUnit unit) {
+        this(Clock.systemDefaultZone(), resolution, unit);
+    }
+
+    public CachedTimeProvider(Clock clock, long resolution, TimeUnit unit) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive");
+        }
+        this.clock = clock;
+        tick();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("cached-clock").daemon().factory());
+        ticker.scheduleAtFixedRate(this::tick, resolution, resolution, unit);
+    }
+
+    @Override
+    public LocalDateTime getCurrentTime() {
+        return currentTime;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdown();
+    }
+
+    private void tick() {
+        Instant now = clock.instant();
+        currentTime = LocalDateTime.ofInstant(now, clock.getZone());
+        epochMillis = now.toEpochMilli();
+    }
+}
@@ -0,0 +1,309 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded LRU cache in front of another {@link RoomRepository}. With write-behind enabled,
+ * {@link #save(Room)} only marks the room dirty and repeated saves of the same room are coalesced
+ * into one write to the underlying repository at the next flush. Rooms that were only saved
+ * through {@link #saveChanges(Room)} are flushed as deltas, since a room that the underlying
+ * repository drains keeps recording its changes until they are written. A room whose write fails
+ * is written whole at the next flush; if it has left the cache meanwhile it waits in a separate
+ * retry list, so failed writes never push the cache past its maximum size.
+ */
+public class CachingRoomRepository implements RoomRepository, AutoCloseable {
+
+    private final RoomRepository delegate;
+    private final int maximumSize;
+    private final boolean writeBehind;
+    private final Map<String, Room> cache;
+    // Värdet anger om hela rummet ska skrivas eller bara dess ändringar
+    private final Map<String, Boolean> dirty = new LinkedHashMap<>();
+    // Rum vars skrivning misslyckades efter att de lämnat cachen; räknas inte mot maxstorleken
+    private final Map<String, Room> retries = new LinkedHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+
+    public CachingRoomRepository(RoomRepository delegate, int maximumSize) {
+        this(delegate, maximumSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param flushInterval how often dirty rooms are written to the delegate; 0 disables write-behind
+     */
+    public CachingRoomRepository(RoomRepository delegate, int maximumSize, long flushInterval, TimeUnit unit) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.writeBehind = flushInterval > 0;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        if (writeBehind) {
+            flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("room-cache-flusher").factory());
+            flusher.scheduleWithFixedDelay(this::flushInBackground, flushInterval, flushInterval, unit);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public Optional<Room> findById(String id) {
+        synchronized (this) {
+            Room cached = cache.get(id);
+            if (cached == null) {
+                cached = retries.get(id);
+            }
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        misses.increment();
+        Optional<Room> loaded = delegate.findById(id);
+        return loaded.map(this::cacheIfAbsent);
+    }
+
+    @Override
+    public List<Room> findAll() {
+        List<Room> rooms = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (Room room : delegate.findAll()) {
+            rooms.add(cacheIfAbsent(room));
+            ids.add(room.getId());
+        }
+        synchronized (this) {
+            // Smutsiga rum som ännu inte skrivits finns kanske inte i det underliggande lagret
+            for (String id : dirty.keySet()) {
+                if (ids.add(id)) {
+                    rooms.add(cache.get(id));
+                }
+            }
+            for (Map.Entry<String, Room> retry : retries.entrySet()) {
+                if (ids.add(retry.getKey())) {
+                    rooms.add(retry.getValue());
+                }
+            }
+        }
+        return rooms;
+    }
+
+    @Override
+    public Stream<Room> streamAll() {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        Stream<Room> stored = delegate.streamAll()
+                .peek(room -> ids.add(room.getId()))
+                .map(this::cacheIfAbsent);
+        // De smutsiga rummen plockas först när det underliggande lagret har strömmats klart
+        Stream<Room> unflushed = Stream.<Supplier<List<Room>>>of(() -> dirtyRoomsExcept(ids))
+                .flatMap(rooms -> rooms.get().stream());
+        return Stream.concat(stored, unflushed);
+    }
+
+    @Override
+    public void save(Room room) {
+        save(room, true);
+    }
+
+    @Override
+    public void saveChanges(Room room) {
+        save(room, false);
+    }
+
+    /**
+     * Writes every dirty room to the delegate. Every room is attempted even if some writes fail; the
+     * first failure is then thrown with the others suppressed.
+     */
+    public void flush() {
+        List<PendingWrite> pending = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Boolean> entry : dirty.entrySet()) {
+                Room room = cache.get(entry.getKey());
+                if (room != null) {
+                    pending.add(new PendingWrite(room, entry.getValue()));
+                }
+            }
+            dirty.clear();
+            for (Room room : retries.values()) {
+                pending.add(new PendingWrite(room, true));
+            }
+            retries.clear();
+        }
+        writeAll(pending);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    public long getFailedWriteCount() {
+        return failedWrites.sum();
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+    }
+
+    private record PendingWrite(Room room, boolean wholeRoom) {
+    }
+
+    private void save(Room room, boolean wholeRoom) {
+        List<PendingWrite> evicted;
+        synchronized (this) {
+            cache.put(room.getId(), room);
+            if (writeBehind) {
+                // Ett rum som väntar på ett nytt försök har tappat sina ändringar och skrivs helt
+                boolean retried = retries.remove(room.getId()) != null;
+                dirty.merge(room.getId(), wholeRoom || retried, Boolean::logicalOr);
+            }
+            evicted = evictOverflow();
+        }
+        if (!writeBehind) {
+            write(new PendingWrite(room, wholeRoom));
+        }
+        writeAll(evicted);
+    }
+
+    private synchronized List<Room> dirtyRoomsExcept(Set<String> ids) {
+        List<Room> rooms = new ArrayList<>();
+        for (String id : dirty.keySet()) {
+            if (!ids.contains(id)) {
+                rooms.add(cache.get(id));
+            }
+        }
+        for (Map.Entry<String, Room> retry : retries.entrySet()) {
+            if (!ids.contains(retry.getKey())) {
+                rooms.add(retry.getValue());
+            }
+        }
+        return rooms;
+    }
+
+    private Room cacheIfAbsent(Room loaded) {
+        List<PendingWrite> evicted;
+        Room room;
+        synchronized (this) {
+            room = cache.get(loaded.getId());
+            if (room == null) {
+                // Lagret har inte fått den senaste versionen av ett rum som väntar på nytt försök
+                room = retries.get(loaded.getId());
+            }
+            if (room != null) {
+                return room;
+            }
+            room = loaded;
+            cache.put(room.getId(), room);
+            evicted = evictOverflow();
+        }
+        writeAll(evicted);
+        return room;
+    }
+
+    private List<PendingWrite> evictOverflow() {
+        List<PendingWrite> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Room>> iterator = cache.entrySet().iterator();
+        while (cache.size() > maximumSize && iterator.hasNext()) {
+            Map.Entry<String, Room> eldest = iterator.next();
+            iterator.remove();
+            evictions.increment();
+            Boolean wholeRoom = dirty.remove(eldest.getKey());
+            if (wholeRoom != null) {
+                evicted.add(new PendingWrite(eldest.getValue(), wholeRoom));
+            }
+        }
+        return evicted;
+    }
+
+    private void flushInBackground() {
+        // Ett undantag här skulle stoppa schemaläggningen; de misslyckade rummen är redan smutsiga igen
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Räknas i failedWrites
+        }
+    }
+
+    private void writeAll(List<PendingWrite> pending) {
+        RuntimeException failure = null;
+        for (PendingWrite write : pending) {
+            try {
+                write(write);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void write(PendingWrite write) {
+        try {
+            if (write.wholeRoom()) {
+                delegate.save(write.room());
+            } else {
+                delegate.saveChanges(write.room());
+            }
+        } catch (RuntimeException e) {
+            failedWrites.increment();
+            if (writeBehind) {
+                markDirtyAgain(write.room());
+            }
+            throw e;
+        }
+        writes.increment();
+    }
+
+    private synchronized void markDirtyAgain(Room room) {
+        // Ändringarna kan redan ha hämtats ur rummet, så nästa försök skriver hela rummet.
+        // En senare save kan ha ersatt rummet i cachen, och då skrivs den nyare versionen.
+        if (cache.containsKey(room.getId())) {
+            dirty.put(room.getId(), true);
+        } else {
+            retries.put(room.getId(), room);
+        }
+    }
+}
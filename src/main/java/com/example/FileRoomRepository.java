@@ -0,0 +1,575 @@
+package com.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable {@link RoomRepository} for a single node. Every save appends the bookings and recurring
+ * series that were added to or removed from the room to a journal; concurrent saves share one
+ * {@code force} (group commit). {@link #saveChanges(Room)} takes those from the room's own change
+ * record, while {@link #save(Room)} compares the whole room with what has been persisted.
+ * Once the journal grows past a threshold the whole state is written to a snapshot, which is
+ * memory-mapped on startup before the journal is replayed on top of it.
+ * <p>
+ * If a group write fails, every save still waiting for it fails, the journal is cut back to what was
+ * last made durable and the repository refuses further writes, since its state in memory is ahead of
+ * the disk. Reopening the directory recovers the durable state.
+ */
+public class FileRoomRepository implements RoomRepository, AutoCloseable {
+
+    static final String JOURNAL_FILE = "rooms.journal";
+    static final String SNAPSHOT_FILE = "rooms.snapshot";
+
+    private static final int SNAPSHOT_MAGIC = 0x524f4f4d;
+    private static final byte ROOM = 1;
+    private static final byte ADD = 2;
+    private static final byte REMOVE = 3;
+    private static final byte ADD_RECURRING = 4;
+    private static final byte REMOVE_RECURRING = 5;
+    private static final int RECORD_HEADER = 8;
+
+    private final Path directory;
+    private final int snapshotThreshold;
+    private final FileChannel journal;
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, PersistedRoom> persisted = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final List<ByteBuffer> pending = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private long journalRecords;
+    private long durablePosition;
+    private IOException failure;
+
+    private static final class PersistedRoom {
+        final String name;
+        final Map<Object, Booking> bookings = new LinkedHashMap<>();
+        final Map<String, RecurringBooking> recurringBookings = new LinkedHashMap<>();
+
+        PersistedRoom(String name) {
+            this.name = name;
+        }
+    }
+
+    public FileRoomRepository(Path directory) throws IOException {
+        this(directory, 10_000);
+    }
+
+    public FileRoomRepository(Path directory, int snapshotThreshold) throws IOException {
+        this(directory, requirePositive(snapshotThreshold), openJournal(directory));
+    }
+
+    FileRoomRepository(Path directory, int snapshotThreshold, FileChannel journal) throws IOException {
+        this.directory = directory;
+        this.snapshotThreshold = snapshotThreshold;
+        this.journal = journal;
+        loadSnapshot();
+        replayJournal();
+        // Det som lästs in är redan sparat
+        rooms.values().forEach(Room::drainChanges);
+    }
+
+    private static int requirePositive(int snapshotThreshold) {
+        if (snapshotThreshold <= 0) {
+            throw new IllegalArgumentException("Snapshot threshold must be positive");
+        }
+        return snapshotThreshold;
+    }
+
+    private static FileChannel openJournal(Path directory) throws IOException {
+        return FileChannel.open(Files.createDirectories(directory).resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public Optional<Room> findById(String id) {
+        return Optional.ofNullable(rooms.get(id));
+    }
+
+    @Override
+    public List<Room> findAll() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    @Override
+    public Stream<Room> streamAll() {
+        return rooms.values().stream();
+    }
+
+    @Override
+    public void save(Room room) {
+        append(room, false);
+    }
+
+    @Override
+    public void saveChanges(Room room) {
+        append(room, true);
+    }
+
+    private void append(Room room, boolean changesOnly) {
+        long sequence;
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw failed();
+            }
+            // Ett rum som inte är det sparade objektet har ingen ändringslogg mot det som finns på disk
+            boolean tracked = changesOnly && rooms.get(room.getId()) == room;
+            RoomChanges changes = room.drainChanges();
+            rooms.put(room.getId(), room);
+            List<ByteBuffer> records = tracked ? changes(room.getId(), changes) : diff(room);
+            if (records.isEmpty()) {
+                return;
+            }
+            pending.addAll(records);
+            journalRecords += records.size();
+            sequence = ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+        snapshotIfJournalIsFull();
+    }
+
+    /**
+     * Writes the current state to a new snapshot and empties the journal.
+     */
+    public void snapshot() {
+        lock.lock();
+        try {
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failed();
+            }
+            writeSnapshot();
+            journal.truncate(0);
+            journal.force(true);
+            pending.clear();
+            durableSequence = appendedSequence;
+            durablePosition = 0;
+            journalRecords = 0;
+            flushed.signalAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void snapshotIfJournalIsFull() {
+        lock.lock();
+        try {
+            if (journalRecords >= snapshotThreshold) {
+                snapshot();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<ByteBuffer> changes(String roomId, RoomChanges changes) {
+        List<ByteBuffer> records = new ArrayList<>();
+        PersistedRoom state = persisted.get(roomId);
+        for (Booking booking : changes.removedBookings()) {
+            if (state.bookings.remove(booking.idKey()) != null) {
+                records.add(record(REMOVE, roomId, booking.getId()));
+            }
+        }
+        for (Booking booking : changes.addedBookings()) {
+            state.bookings.put(booking.idKey(), booking);
+            records.add(addRecord(booking));
+        }
+        for (String bookingId : changes.removedRecurringBookings()) {
+            if (state.recurringBookings.remove(bookingId) != null) {
+                records.add(record(REMOVE_RECURRING, roomId, bookingId));
+            }
+        }
+        for (RecurringBooking series : changes.addedRecurringBookings()) {
+            state.recurringBookings.put(series.getId(), series);
+            records.add(addRecurringRecord(series));
+        }
+        return records;
+    }
+
+    private List<ByteBuffer> diff(Room room) {
+        List<ByteBuffer> records = new ArrayList<>();
+        PersistedRoom state = persisted.get(room.getId());
+        if (state == null) {
+            state = new PersistedRoom(room.getName());
+            persisted.put(room.getId(), state);
+            records.add(record(ROOM, room.getId(), room.getName()));
+        }
+
+        Map<Object, Booking> current = new HashMap<>();
+        for (Booking booking : room.getBookings()) {
+            current.put(booking.idKey(), booking);
+        }
+        Iterator<Map.Entry<Object, Booking>> iterator = state.bookings.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Object, Booking> entry = iterator.next();
+            if (!current.containsKey(entry.getKey())) {
+                iterator.remove();
+                records.add(record(REMOVE, room.getId(), entry.getValue().getId()));
+            }
+        }
+        for (Map.Entry<Object, Booking> entry : current.entrySet()) {
+            if (state.bookings.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                records.add(addRecord(entry.getValue()));
+            }
+        }
+
+        Map<String, RecurringBooking> currentSeries = new HashMap<>();
+        for (RecurringBooking series : room.getRecurringBookings()) {
+            currentSeries.put(series.getId(), series);
+        }
+        state.recurringBookings.keySet().removeIf(id -> {
+            if (currentSeries.containsKey(id)) {
+                return false;
+            }
+            records.add(record(REMOVE_RECURRING, room.getId(), id));
+            return true;
+        });
+        for (RecurringBooking series : currentSeries.values()) {
+            if (state.recurringBookings.putIfAbsent(series.getId(), series) == null) {
+                records.add(addRecurringRecord(series));
+            }
+        }
+        return records;
+    }
+
+    private void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw failed();
+                }
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // Den här tråden skriver allt som köats hittills, även andra trådars poster
+                flushing = true;
+                List<ByteBuffer> batch = new ArrayList<>(pending);
+                pending.clear();
+                long upTo = appendedSequence;
+                long size = 0;
+                for (ByteBuffer buffer : batch) {
+                    size += buffer.remaining();
+                }
+                lock.unlock();
+                IOException error = null;
+                try {
+                    ByteBuffer[] buffers = batch.toArray(ByteBuffer[]::new);
+                    while (buffers.length > 0 && buffers[buffers.length - 1].hasRemaining()) {
+                        journal.write(buffers);
+                    }
+                    journal.force(false);
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    if (error == null) {
+                        durableSequence = upTo;
+                        durablePosition += size;
+                    } else {
+                        fail(error);
+                    }
+                    // Väntande trådar ser antingen sin sekvens som hållbar eller att lagret har fallerat
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(IOException error) {
+        failure = error;
+        pending.clear();
+        // Det som hann skrivas av gruppen kapas bort, så att journalen bara innehåller det som bekräftats
+        try {
+            journal.truncate(durablePosition);
+            journal.position(durablePosition);
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+    }
+
+    private UncheckedIOException failed() {
+        return new UncheckedIOException("Journal write failed; reopen the repository to recover", failure);
+    }
+
+    private void loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a room snapshot: " + path);
+            }
+            int roomCount = buffer.getInt();
+            for (int i = 0; i < roomCount; i++) {
+                String roomId = readString(buffer);
+                applyRoom(roomId, readString(buffer));
+                int bookingCount = buffer.getInt();
+                for (int j = 0; j < bookingCount; j++) {
+                    applyAdd(roomId, readBooking(buffer, roomId));
+                }
+                int seriesCount = buffer.getInt();
+                for (int j = 0; j < seriesCount; j++) {
+                    applyAddRecurring(roomId, readRecurringBooking(buffer, roomId));
+                }
+            }
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) journal.size());
+        journal.read(buffer, 0);
+        buffer.flip();
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || buffer.remaining() < length) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            apply(payload);
+            journalRecords++;
+        }
+        // Avkapad post från en krasch mitt i en skrivning
+        journal.truncate(buffer.position());
+        journal.position(buffer.position());
+        durablePosition = buffer.position();
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte type = payload.get();
+        String roomId = readString(payload);
+        switch (type) {
+            case ROOM -> applyRoom(roomId, readString(payload));
+            case ADD -> applyAdd(roomId, readBooking(payload, roomId));
+            case REMOVE -> applyRemove(roomId, readString(payload));
+            case ADD_RECURRING -> applyAddRecurring(roomId, readRecurringBooking(payload, roomId));
+            case REMOVE_RECURRING -> applyRemoveRecurring(roomId, readString(payload));
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    private void applyRoom(String roomId, String name) {
+        persisted.putIfAbsent(roomId, new PersistedRoom(name));
+        rooms.putIfAbsent(roomId, new Room(roomId, name));
+    }
+
+    private void applyAdd(String roomId, Booking booking) {
+        persisted.get(roomId).bookings.put(booking.idKey(), booking);
+        Room room = rooms.get(roomId);
+        // En krasch mellan ny snapshot och tömd journal spelar upp bokningar som redan finns
+        room.removeBooking(booking.getId());
+        room.addBooking(booking);
+    }
+
+    private void applyRemove(String roomId, String bookingId) {
+        persisted.get(roomId).bookings.remove(Booking.idKey(bookingId));
+        rooms.get(roomId).removeBooking(bookingId);
+    }
+
+    private void applyAddRecurring(String roomId, RecurringBooking series) {
+        persisted.get(roomId).recurringBookings.put(series.getId(), series);
+        rooms.get(roomId).addRecurringBooking(series);
+    }
+
+    private void applyRemoveRecurring(String roomId, String bookingId) {
+        persisted.get(roomId).recurringBookings.remove(bookingId);
+        rooms.get(roomId).removeRecurringBooking(bookingId);
+    }
+
+    private void writeSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(persisted.size());
+        for (Map.Entry<String, PersistedRoom> entry : persisted.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue().name);
+            out.writeInt(entry.getValue().bookings.size());
+            for (Booking booking : entry.getValue().bookings.values()) {
+                writeBooking(out, booking);
+            }
+            out.writeInt(entry.getValue().recurringBookings.size());
+            for (RecurringBooking series : entry.getValue().recurringBookings.values()) {
+                writeRecurringBooking(out, series);
+            }
+        }
+        out.flush();
+
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer record(byte type, String roomId, String value) {
+        return frame(out -> {
+            out.writeByte(type);
+            writeString(out, roomId);
+            writeString(out, value);
+        });
+    }
+
+    private static ByteBuffer addRecord(Booking booking) {
+        return frame(out -> {
+            out.writeByte(ADD);
+            writeString(out, booking.getRoomId());
+            writeBooking(out, booking);
+        });
+    }
+
+    private static ByteBuffer addRecurringRecord(RecurringBooking series) {
+        return frame(out -> {
+            out.writeByte(ADD_RECURRING);
+            writeString(out, series.getRoomId());
+            writeRecurringBooking(out, series);
+        });
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static ByteBuffer frame(RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writer.write(new DataOutputStream(bytes));
+            byte[] payload = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBooking(DataOutputStream out, Booking booking) throws IOException {
+        writeString(out, booking.getId());
+        out.writeLong(booking.startSecond());
+        out.writeInt(booking.startNano());
+        out.writeLong(booking.endSecond());
+        out.writeInt(booking.endNano());
+    }
+
+    private static Booking readBooking(ByteBuffer buffer, String roomId) {
+        String id = readString(buffer);
+        LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        LocalDateTime end = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        return new Booking(id, roomId, start, end);
+    }
+
+    private static void writeRecurringBooking(DataOutputStream out, RecurringBooking series) throws IOException {
+        writeString(out, series.getId());
+        out.writeLong(series.getStartTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(series.getStartTime().getNano());
+        out.writeLong(series.getEndTime().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(series.getEndTime().getNano());
+        out.writeByte(series.getRecurrence().ordinal());
+        out.writeLong(series.getUntil().toEpochDay());
+        out.writeInt(series.getExceptions().size());
+        for (LocalDate exception : series.getExceptions()) {
+            out.writeLong(exception.toEpochDay());
+        }
+    }
+
+    private static RecurringBooking readRecurringBooking(ByteBuffer buffer, String roomId) {
+        String id = readString(buffer);
+        LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        LocalDateTime end = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+        RecurringBooking.Recurrence recurrence = RecurringBooking.Recurrence.values()[buffer.get()];
+        LocalDate until = LocalDate.ofEpochDay(buffer.getLong());
+        Set<LocalDate> exceptions = new HashSet<>();
+        int exceptionCount = buffer.getInt();
+        for (int i = 0; i < exceptionCount; i++) {
+            exceptions.add(LocalDate.ofEpochDay(buffer.getLong()));
+        }
+        return new RecurringBooking(id, roomId, start, end, recurrence, until, exceptions);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
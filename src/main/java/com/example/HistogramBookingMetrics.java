@@ -0,0 +1,56 @@
+package com.example;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class HistogramBookingMetrics implements BookingMetrics {
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejections = new EnumMap<>(Operation.class);
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder notificationFailures = new LongAdder();
+
+    public HistogramBookingMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            rejections.put(operation, new LongAdder());
+        }
+    }
+
+    @Override
+    public void recordLatency(Operation operation, long nanos) {
+        latencies.get(operation).record(nanos);
+    }
+
+    @Override
+    public void recordRejection(Operation operation) {
+        rejections.get(operation).increment();
+    }
+
+    @Override
+    public void recordConflict() {
+        conflicts.increment();
+    }
+
+    @Override
+    public void recordNotificationFailure() {
+        notificationFailures.increment();
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    public long getRejectionCount(Operation operation) {
+        return rejections.get(operation).sum();
+    }
+
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    public long getNotificationFailureCount() {
+        return notificationFailures.sum();
+    }
+}
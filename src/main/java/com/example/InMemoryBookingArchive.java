@@ -0,0 +1,73 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryBookingArchive implements BookingArchive {
+    private final Map<Object, Booking> bookingsById = new ConcurrentHashMap<>();
+    private final Map<String, RoomArchive> bookingsByRoom = new ConcurrentHashMap<>();
+
+    // Ett rums bokningar efter starttid, och den längsta bokningen så att en period kan slås upp utan att läsa allt
+    private static final class RoomArchive {
+        final NavigableMap<LocalDateTime, Queue<Booking>> byStart = new ConcurrentSkipListMap<>();
+        final AtomicLong longestSeconds = new AtomicLong();
+
+        void add(Booking booking) {
+            byStart.computeIfAbsent(booking.getStartTime(), start -> new ConcurrentLinkedQueue<>()).add(booking);
+            longestSeconds.accumulateAndGet(ChronoUnit.SECONDS.between(booking.getStartTime(), booking.getEndTime()),
+                    Math::max);
+        }
+    }
+
+    @Override
+    public void archive(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            bookingsById.put(booking.idKey(), booking);
+            bookingsByRoom.computeIfAbsent(booking.getRoomId(), id -> new RoomArchive()).add(booking);
+        }
+    }
+
+    @Override
+    public Optional<Booking> findById(String bookingId) {
+        return Optional.ofNullable(bookingsById.get(Booking.idKey(bookingId)));
+    }
+
+    @Override
+    public List<Booking> findByRoom(String roomId) {
+        RoomArchive room = bookingsByRoom.get(roomId);
+        List<Booking> bookings = new ArrayList<>();
+        if (room != null) {
+            room.byStart.values().forEach(bookings::addAll);
+        }
+        return bookings;
+    }
+
+    @Override
+    public List<Booking> findByRoomBetween(String roomId, LocalDateTime from, LocalDateTime to) {
+        RoomArchive room = bookingsByRoom.get(roomId);
+        List<Booking> bookings = new ArrayList<>();
+        if (room == null) {
+            return bookings;
+        }
+        // En bokning som överlappar perioden kan inte ha startat tidigare än den längsta bokningen räcker
+        LocalDateTime earliestStart = from.minusSeconds(room.longestSeconds.get());
+        for (Queue<Booking> sameStart : room.byStart.subMap(earliestStart, true, to, true).values()) {
+            for (Booking booking : sameStart) {
+                if (!booking.getEndTime().isBefore(from)) {
+                    bookings.add(booking);
+                }
+            }
+        }
+        return bookings;
+    }
+}
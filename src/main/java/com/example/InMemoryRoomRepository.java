@@ -0,0 +1,32 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+public class InMemoryRoomRepository implements RoomRepository {
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Room> findById(String id) {
+        return Optional.ofNullable(rooms.get(id));
+    }
+
+    @Override
+    public List<Room> findAll() {
+        return new ArrayList<>(rooms.values());
+    }
+
+    @Override
+    public Stream<Room> streamAll() {
+        return rooms.values().stream();
+    }
+
+    @Override
+    public void save(Room room) {
+        rooms.put(room.getId(), room);
+    }
+}
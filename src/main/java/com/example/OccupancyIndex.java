@@ -0,0 +1,244 @@
+package com.example;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fleet-wide occupancy bitmaps. Time is cut into fixed slots and every slot has one bitmap with a
+ * bit per room, set when some booking in that room overlaps the slot. A window query ORs the
+ * bitmaps of its slots; rooms only hit in a slot that the window covers partially are rechecked
+ * exactly against {@link Room#isAvailable(LocalDateTime, LocalDateTime)}. So are rooms that the
+ * bitmaps do not fully describe: rooms without an id, rooms with recurring bookings or bookings
+ * longer than {@value #MAX_SLOTS_PER_BOOKING} slots, and rooms changed behind the index's back.
+ * <p>
+ * The bitmaps only follow changes reported through {@link #add} and {@link #remove}. A room whose
+ * bookings were changed some other way, for example by another booking system on the same
+ * repository, is detected through {@link Room#bookingVersion()} and checked exactly from then on.
+ * <p>
+ * A slot's bitmap is dropped as soon as its last bit is cleared, and {@link #pruneBefore} drops
+ * whole slots that lie in the past, so the index only holds slots that some booking still covers.
+ * Windows that reach into pruned time are checked exactly.
+ */
+class OccupancyIndex {
+
+    static final Duration DEFAULT_SLOT = Duration.ofMinutes(15);
+    private static final int NO_ROOM = -1;
+    // En vecka med standardslottar
+    static final int MAX_SLOTS_PER_BOOKING = 672;
+
+    private final long slotSeconds;
+    // Rums-id till bitens plats i bitmapparna; bara rum som indexerats får ett handtag
+    private final Map<String, Integer> handles = new ConcurrentHashMap<>();
+    // Rum-handtag till den sekvens då rummets bokningar var färdigindexerade
+    private final Map<Integer, Long> indexedRooms = new ConcurrentHashMap<>();
+    // Rum-handtag till antalet bokningsändringar som bitmapparna speglar
+    private final Map<Integer, Long> indexedVersions = new ConcurrentHashMap<>();
+    // Rum-handtag till antalet bokningar som är för långa för bitmapparna
+    private final Map<Integer, Integer> longBookings = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final NavigableMap<Long, BitSet> slots = new ConcurrentSkipListMap<>();
+    // Slottar före denna har rensats bort och kan inte längre besvaras av bitmapparna
+    private volatile long prunedBefore = Long.MIN_VALUE;
+
+    OccupancyIndex() {
+        this(DEFAULT_SLOT);
+    }
+
+    OccupancyIndex(Duration slot) {
+        if (slot.toSeconds() <= 0 || slot.toNanosPart() != 0) {
+            throw new IllegalArgumentException("Slot must be a positive whole number of seconds");
+        }
+        this.slotSeconds = slot.toSeconds();
+    }
+
+    boolean isIndexed(Room room) {
+        return isIndexed(handleOf(room.getId()));
+    }
+
+    synchronized void index(Room room) {
+        if (room.getId() == null) {
+            return;
+        }
+        int handle = handles.computeIfAbsent(room.getId(), id -> handles.size());
+        if (indexedRooms.putIfAbsent(handle, Long.MAX_VALUE) != null) {
+            return;
+        }
+        // Ändringar som rapporteras medan rummet indexeras gör versionen för låg, och rummet kontrolleras då exakt
+        long version = room.forEachBooking(booking -> addToSlots(handle, booking));
+        indexedVersions.put(handle, version);
+        indexedRooms.put(handle, sequence.incrementAndGet());
+    }
+
+    /**
+     * Reports a booking that was just added to its room.
+     */
+    void add(Booking booking) {
+        int bit = handleOf(booking.getRoomId());
+        if (!isIndexed(bit)) {
+            return;
+        }
+        addToSlots(bit, booking);
+        indexedVersions.computeIfPresent(bit, (handle, version) -> version + 1);
+    }
+
+    private void addToSlots(int bit, Booking booking) {
+        if (isLong(booking)) {
+            longBookings.merge(bit, 1, Integer::sum);
+            return;
+        }
+        long last = slotOf(booking.endSecond());
+        for (long slot = slotOf(booking.startSecond()); slot <= last; slot++) {
+            setBit(slot, bit);
+        }
+    }
+
+    private void setBit(long slot, int bit) {
+        while (true) {
+            BitSet bits = slots.computeIfAbsent(slot, s -> new BitSet());
+            synchronized (bits) {
+                // En bitmap som tömts och tagits bort under tiden får ersättas av en ny
+                if (slots.get(slot) == bits) {
+                    bits.set(bit);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports a booking that was just removed from the room.
+     */
+    void remove(Room room, Booking booking) {
+        int bit = handleOf(booking.getRoomId());
+        if (!isIndexed(bit)) {
+            return;
+        }
+        if (isLong(booking)) {
+            longBookings.computeIfPresent(bit, (handle, count) -> count == 1 ? null : count - 1);
+        }
+        // Även en lång bokning kan ha hållit kvar bitar åt kortare bokningar som tagits bort under den
+        clearSlots(room, bit, booking);
+        indexedVersions.computeIfPresent(bit, (handle, version) -> version + 1);
+    }
+
+    int slotCount() {
+        return slots.size();
+    }
+
+    /**
+     * Drops the bitmaps of every slot that ends at or before the given time. Windows that start
+     * before it are checked exactly from then on.
+     */
+    synchronized void pruneBefore(LocalDateTime time) {
+        long first = slotOf(time.toEpochSecond(ZoneOffset.UTC));
+        if (first <= prunedBefore) {
+            return;
+        }
+        // Gränsen flyttas innan bitmapparna tas bort, så att en fråga som ser dem borta också ser gränsen
+        prunedBefore = first;
+        slots.headMap(first).clear();
+    }
+
+    private void clearSlots(Room room, int bit, Booking booking) {
+        long first = slotOf(booking.startSecond());
+        long last = slotOf(booking.endSecond());
+        for (Map.Entry<Long, BitSet> entry : slots.subMap(first, true, last, true).entrySet()) {
+            long slot = entry.getKey();
+            BitSet bits = entry.getValue();
+            // Slotten kan fortfarande vara upptagen av en annan bokning i samma rum
+            LocalDateTime slotStart = startOf(slot);
+            if (room.isAvailable(slotStart, slotStart.plusSeconds(slotSeconds).minusNanos(1))) {
+                synchronized (bits) {
+                    bits.clear(bit);
+                    if (bits.isEmpty()) {
+                        slots.remove(slot, bits);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isIndexed(int handle) {
+        return handle != NO_ROOM && indexedRooms.containsKey(handle);
+    }
+
+    private int handleOf(String roomId) {
+        return roomId == null ? NO_ROOM : handles.getOrDefault(roomId, NO_ROOM);
+    }
+
+    private boolean isLong(Booking booking) {
+        return slotOf(booking.endSecond()) - slotOf(booking.startSecond()) >= MAX_SLOTS_PER_BOOKING;
+    }
+
+    Occupancy query(LocalDateTime startTime, LocalDateTime endTime) {
+        long indexedBefore = sequence.get();
+        BitSet busy = new BitSet();
+        BitSet partial = new BitSet();
+        long first = slotOf(startTime.toEpochSecond(ZoneOffset.UTC));
+        long last = slotOf(endTime.toEpochSecond(ZoneOffset.UTC));
+        for (Map.Entry<Long, BitSet> entry : slots.subMap(first, true, last, true).entrySet()) {
+            long slot = entry.getKey();
+            LocalDateTime slotStart = startOf(slot);
+            boolean covered = !slotStart.isBefore(startTime)
+                    && !slotStart.plusSeconds(slotSeconds).isAfter(endTime);
+            BitSet bits = entry.getValue();
+            synchronized (bits) {
+                (covered ? busy : partial).or(bits);
+            }
+        }
+        partial.andNot(busy);
+        // Läses efter bitmapparna, så att en rensning som hann ske under frågan upptäcks
+        boolean exact = first < prunedBefore;
+        return new Occupancy(busy, partial, indexedBefore, exact);
+    }
+
+    private long slotOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, slotSeconds);
+    }
+
+    private LocalDateTime startOf(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * slotSeconds, 0, ZoneOffset.UTC);
+    }
+
+    final class Occupancy {
+        private final BitSet busy;
+        private final BitSet partial;
+        private final long indexedBefore;
+        private final boolean exact;
+
+        private Occupancy(BitSet busy, BitSet partial, long indexedBefore, boolean exact) {
+            this.busy = busy;
+            this.partial = partial;
+            this.indexedBefore = indexedBefore;
+            this.exact = exact;
+        }
+
+        /**
+         * Rooms that were not fully indexed when the query ran are checked exactly, so rooms can be
+         * indexed while a lazily consumed result is still being filtered.
+         */
+        boolean isAvailable(Room room, LocalDateTime startTime, LocalDateTime endTime) {
+            int bit = handleOf(room.getId());
+            if (exact || bit == NO_ROOM || !isDescribedByBitmaps(bit, room) || partial.get(bit)) {
+                return room.isAvailable(startTime, endTime);
+            }
+            return !busy.get(bit);
+        }
+
+        private boolean isDescribedByBitmaps(int bit, Room room) {
+            Long indexedAt = indexedRooms.get(bit);
+            return indexedAt != null
+                    && indexedAt <= indexedBefore
+                    && !longBookings.containsKey(bit)
+                    && !room.hasRecurringBookings()
+                    && indexedVersions.getOrDefault(bit, -1L) == room.bookingVersion();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A series of equally long bookings that repeat daily or weekly up to and including an end date.
+ * Occurrences are never materialized; overlap checks compute which occurrences can touch a window
+ * and only look at those.
+ */
+public class RecurringBooking {
+
+    public enum Recurrence {
+        DAILY(1), WEEKLY(7);
+
+        private final int days;
+
+        Recurrence(int days) {
+            this.days = days;
+        }
+
+        public int getDays() {
+            return days;
+        }
+    }
+
+    private final String id;
+    private final String roomId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Recurrence recurrence;
+    private final LocalDate until;
+    private final Set<LocalDate> exceptions;
+    private final Duration length;
+    private final long periodSeconds;
+    private final long lastOccurrence;
+
+    /**
+     * @param startTime  start of the first occurrence
+     * @param endTime    end of the first occurrence
+     * @param until      date of the last possible occurrence
+     * @param exceptions dates on which the series does not take place
+     */
+    public RecurringBooking(String id, String roomId, LocalDateTime startTime, LocalDateTime endTime,
+                            Recurrence recurrence, LocalDate until, Set<LocalDate> exceptions) {
+        this.id = id;
+        this.roomId = roomId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.recurrence = recurrence;
+        this.until = until;
+        this.exceptions = Set.copyOf(exceptions);
+        this.length = Duration.between(startTime, endTime);
+        this.periodSeconds = recurrence.getDays() * 86_400L;
+        this.lastOccurrence = Math.floorDiv(ChronoUnit.DAYS.between(startTime.toLocalDate(), until), recurrence.getDays());
+    }
+
+    /**
+     * Uses the same inclusive semantics as {@link Booking#overlaps(LocalDateTime, LocalDateTime)}.
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return findOverlappingEnd(start, end) != null;
+    }
+
+    /**
+     * Returns true if any occurrence of this series overlaps an occurrence of the other series.
+     * <p>
+     * Occurrence k of this series and occurrence j of the other overlap when the day offset
+     * m = k * a - j * b between them, with a and b the periods in days, falls in the narrow range
+     * that the two starts and lengths allow. Only those few offsets are tried, and for each one the
+     * pairs (k, j) are walked until one is found whose dates are not exceptions.
+     */
+    public boolean overlaps(RecurringBooking other) {
+        if (recurrence.getDays() < other.recurrence.getDays()) {
+            return other.overlaps(this);
+        }
+        if (lastOccurrence < 0 || other.lastOccurrence < 0) {
+            return false;
+        }
+        int a = recurrence.getDays();
+        int b = other.recurrence.getDays();
+        Duration offset = Duration.between(startTime, other.startTime);
+        long firstDay = ceilDays(offset.minus(length));
+        long lastDay = floorDays(offset.plus(other.length));
+        for (long m = firstDay; m <= lastDay; m++) {
+            // b delar a, så j blir ett heltal för alla k eller för inget
+            if (Math.floorMod(m, b) != 0) {
+                continue;
+            }
+            long firstK = Math.max(0, Math.ceilDiv(m, a));
+            long lastK = Math.min(lastOccurrence, Math.floorDiv(other.lastOccurrence * b + m, a));
+            for (long k = firstK; k <= lastK; k++) {
+                long j = (k * a - m) / b;
+                if (!isException(k) && !other.isException(j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a copy that ends with the last occurrence starting before the given time, {@code null}
+     * if no occurrence starts before it, or this series itself if every occurrence does.
+     */
+    RecurringBooking endingBefore(LocalDateTime time) {
+        long started = occurrencesBefore(time, true);
+        if (started <= 0) {
+            return null;
+        }
+        if (started > lastOccurrence) {
+            return this;
+        }
+        LocalDate lastDate = occurrence(started - 1).toLocalDate();
+        Set<LocalDate> kept = new HashSet<>();
+        for (LocalDate exception : exceptions) {
+            if (!exception.isAfter(lastDate)) {
+                kept.add(exception);
+            }
+        }
+        return new RecurringBooking(id, roomId, startTime, endTime, recurrence, lastDate, kept);
+    }
+
+    /**
+     * Returns the end of an occurrence that overlaps the window, or {@code null} if there is none.
+     */
+    LocalDateTime findOverlappingEnd(LocalDateTime start, LocalDateTime end) {
+        long first = Math.max(0, occurrencesBefore(start.minus(length), true));
+        long last = Math.min(lastOccurrence, occurrencesBefore(end, false));
+        // Slingan går bara vidare förbi förekomster som är undantagna
+        for (long k = first; k <= last; k++) {
+            LocalDateTime occurrence = occurrence(k);
+            if (!exceptions.contains(occurrence.toLocalDate())) {
+                return occurrence.plus(length);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the start of every occurrence that overlaps the window, in order.
+     */
+    public List<LocalDateTime> getOccurrencesBetween(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        long first = Math.max(0, occurrencesBefore(start.minus(length), true));
+        long last = Math.min(lastOccurrence, occurrencesBefore(end, false));
+        for (long k = first; k <= last; k++) {
+            LocalDateTime occurrence = occurrence(k);
+            if (!exceptions.contains(occurrence.toLocalDate())) {
+                occurrences.add(occurrence);
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * End of the last occurrence the rule allows, whether or not that date is an exception.
+     */
+    public LocalDateTime getLastEndTime() {
+        return occurrence(Math.max(0, lastOccurrence)).plus(length);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRoomId() {
+        return roomId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public Set<LocalDate> getExceptions() {
+        return exceptions;
+    }
+
+    private boolean isException(long k) {
+        return !exceptions.isEmpty() && exceptions.contains(occurrence(k).toLocalDate());
+    }
+
+    private static long floorDays(Duration duration) {
+        return Math.floorDiv(duration.getSeconds(), 86_400L);
+    }
+
+    private static long ceilDays(Duration duration) {
+        return -floorDays(duration.negated());
+    }
+
+    private LocalDateTime occurrence(long k) {
+        return startTime.plusDays(k * recurrence.getDays());
+    }
+
+    /**
+     * Number of whole periods from the first start to {@code time}, rounded up or down.
+     */
+    private long occurrencesBefore(LocalDateTime time, boolean roundUp) {
+        Duration offset = Duration.between(startTime, time);
+        long periods = Math.floorDiv(offset.getSeconds(), periodSeconds);
+        if (roundUp && (offset.getNano() > 0 || Math.floorMod(offset.getSeconds(), periodSeconds) != 0)) {
+            periods++;
+        }
+        return periods;
+    }
+}
@@ -1,13 +1,41 @@
 package com.example;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+/**
+ * A room and its bookings. Every change publishes a new immutable snapshot of the bookings, so
+ * availability checks and listings never block and always see one consistent version, while
+ * writers are serialized on the room. Once a repository has drained the room with
+ * {@link #drainChanges()}, writers also record what they changed until the next drain, so a save
+ * only has to persist the difference. Rooms that are never drained record nothing.
+ */
 public class Room {
     private final String id;
     private final String name;
-    private final Set<Booking> bookings = new HashSet<>();
+    private final Map<Object, Booking> bookingsById = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Ändringar sedan senaste drainChanges, skyddade av rummets lås; spelas bara in efter första drain
+    private boolean recordingChanges;
+    private final Map<Object, Booking> removedSinceDrain = new LinkedHashMap<>();
+    private final Map<Object, Booking> addedSinceDrain = new LinkedHashMap<>();
+    private final Set<String> removedSeriesSinceDrain = new LinkedHashSet<>();
+    private final Map<String, RecurringBooking> addedSeriesSinceDrain = new LinkedHashMap<>();
+
+    // bookingVersion räknar varje bokning som lagts till eller tagits bort
+    private record Snapshot(BookingIntervalTree bookings, List<RecurringBooking> recurringBookings, long bookingVersion) {
+        static final Snapshot EMPTY = new Snapshot(BookingIntervalTree.EMPTY, List.of(), 0);
+    }
 
     public Room(String id, String name) {
         this.id = id;
@@ -15,29 +43,216 @@ public class Room {
     }
 
     public boolean isAvailable(LocalDateTime startTime, LocalDateTime endTime) {
-        return bookings.stream()
-                .noneMatch(booking ->
-                        booking.overlaps(startTime, endTime));
+        return findConflictEnd(snapshot, startTime, endTime) == null;
+    }
+
+    /**
+     * Checks a whole series against the bookings and the other series in the room.
+     */
+    public boolean isAvailable(RecurringBooking series) {
+        Snapshot current = snapshot;
+        for (Booking booking : current.bookings().findAllOverlapping(series.getStartTime(), series.getLastEndTime())) {
+            if (series.overlaps(booking.getStartTime(), booking.getEndTime())) {
+                return false;
+            }
+        }
+        for (RecurringBooking other : current.recurringBookings()) {
+            if (!other.getId().equals(series.getId()) && series.overlaps(other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized void addRecurringBooking(RecurringBooking series) {
+        List<RecurringBooking> recurringBookings = new ArrayList<>(snapshot.recurringBookings());
+        if (recurringBookings.removeIf(existing -> existing.getId().equals(series.getId()))) {
+            seriesRemoved(series.getId());
+        }
+        recurringBookings.add(series);
+        snapshot = new Snapshot(snapshot.bookings(), List.copyOf(recurringBookings), snapshot.bookingVersion());
+        if (recordingChanges) {
+            addedSeriesSinceDrain.put(series.getId(), series);
+        }
+    }
+
+    public synchronized void removeRecurringBooking(String bookingId) {
+        List<RecurringBooking> recurringBookings = new ArrayList<>(snapshot.recurringBookings());
+        if (recurringBookings.removeIf(existing -> existing.getId().equals(bookingId))) {
+            snapshot = new Snapshot(snapshot.bookings(), List.copyOf(recurringBookings), snapshot.bookingVersion());
+            seriesRemoved(bookingId);
+        }
+    }
+
+    public boolean hasRecurringBooking(String bookingId) {
+        for (RecurringBooking series : snapshot.recurringBookings()) {
+            if (series.getId().equals(bookingId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<RecurringBooking> getRecurringBookings() {
+        return snapshot.recurringBookings();
+    }
+
+    public boolean hasRecurringBookings() {
+        return !snapshot.recurringBookings().isEmpty();
     }
 
-    public void addBooking(Booking booking) {
-        bookings.add(booking);
+    public synchronized void addBooking(Booking booking) {
+        if (bookingsById.containsKey(booking.idKey())) {
+            throw new IllegalArgumentException("Bokning med samma id finns redan");
+        }
+        // Publiceras före id-uppslaget så att en bokning som går att slå upp också finns i trädet
+        publish(snapshot.bookings().insert(booking), 1);
+        bookingsById.put(booking.idKey(), booking);
+        if (recordingChanges) {
+            addedSinceDrain.put(booking.idKey(), booking);
+        }
     }
 
-    public void removeBooking(String bookingId) {
-        bookings.removeIf(booking -> booking.getId().equals(bookingId));
+    public synchronized void removeBooking(String bookingId) {
+        Booking removed = bookingsById.remove(Booking.idKey(bookingId));
+        if (removed != null) {
+            publish(snapshot.bookings().remove(removed), 1);
+            bookingRemoved(removed);
+        }
+    }
+
+    /**
+     * Returns the bookings that ended before the given time, in start time order, without removing them.
+     */
+    public List<Booking> getBookingsEndedBefore(LocalDateTime time) {
+        return snapshot.bookings().findAllEndingBefore(time);
+    }
+
+    /**
+     * Removes the given bookings and returns those that were still in the room.
+     */
+    public synchronized List<Booking> removeBookings(List<Booking> bookings) {
+        BookingIntervalTree tree = snapshot.bookings();
+        List<Booking> removed = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            // Bara samma bokning tas bort, inte en som ersatt den under samma id
+            if (bookingsById.remove(booking.idKey(), booking)) {
+                tree = tree.remove(booking);
+                bookingRemoved(booking);
+                removed.add(booking);
+            }
+        }
+        publish(tree, removed.size());
+        return removed;
+    }
+
+    /**
+     * Returns the bookings and series removed and added since the previous call, and starts
+     * recording from scratch. A booking that was added and removed again in between is left out.
+     * The first call returns no changes and only turns recording on.
+     */
+    public synchronized RoomChanges drainChanges() {
+        recordingChanges = true;
+        if (removedSinceDrain.isEmpty() && addedSinceDrain.isEmpty()
+                && removedSeriesSinceDrain.isEmpty() && addedSeriesSinceDrain.isEmpty()) {
+            return RoomChanges.NONE;
+        }
+        RoomChanges changes = new RoomChanges(List.copyOf(removedSinceDrain.values()),
+                List.copyOf(addedSinceDrain.values()), List.copyOf(removedSeriesSinceDrain),
+                List.copyOf(addedSeriesSinceDrain.values()));
+        removedSinceDrain.clear();
+        addedSinceDrain.clear();
+        removedSeriesSinceDrain.clear();
+        addedSeriesSinceDrain.clear();
+        return changes;
     }
 
     public boolean hasBooking(String bookingId) {
-        return bookings.stream()
-                .anyMatch(booking -> booking.getId().equals(bookingId));
+        return bookingsById.containsKey(Booking.idKey(bookingId));
+    }
+
+    /**
+     * Number of bookings that have been added to or removed from the room. An index that mirrors the
+     * bookings can compare it with the number of changes it has applied to tell whether it is stale.
+     */
+    long bookingVersion() {
+        return snapshot.bookingVersion();
+    }
+
+    /**
+     * Passes every booking of one snapshot to the action and returns the {@link #bookingVersion()}
+     * of that same snapshot.
+     */
+    long forEachBooking(Consumer<Booking> action) {
+        Snapshot current = snapshot;
+        current.bookings().toList().forEach(action);
+        return current.bookingVersion();
     }
 
     public Booking getBooking(String bookingId) {
-        return bookings.stream()
-                .filter(booking -> booking.getId().equals(bookingId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Bokning finns inte"));
+        Booking booking = bookingsById.get(Booking.idKey(bookingId));
+        if (booking == null) {
+            throw new IllegalArgumentException("Bokning finns inte");
+        }
+        return booking;
+    }
+
+    public List<Booking> getBookings() {
+        return snapshot.bookings().toList();
+    }
+
+    public List<Booking> getBookingsBetween(LocalDateTime startTime, LocalDateTime endTime) {
+        return snapshot.bookings().findAllOverlapping(startTime, endTime);
+    }
+
+    /**
+     * Returns the earliest start at or after {@code after} where a booking of the given length fits,
+     * or {@code null} if there is none that starts at or before {@code latestStart}. After skipping
+     * past a booking the search continues from the first whole minute after that booking ends,
+     * since the end of a booking is itself occupied.
+     */
+    public LocalDateTime findNextAvailableSlot(Duration duration, LocalDateTime after, LocalDateTime latestStart) {
+        Snapshot current = snapshot;
+        LocalDateTime candidate = after;
+        while (latestStart == null || !candidate.isAfter(latestStart)) {
+            LocalDateTime conflictEnd = findConflictEnd(current, candidate, candidate.plus(duration));
+            if (conflictEnd == null) {
+                return candidate;
+            }
+            candidate = conflictEnd.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        }
+        return null;
+    }
+
+    // En bokning som lagts till sedan senaste drain har aldrig sparats och behöver inte tas bort
+    private void bookingRemoved(Booking booking) {
+        if (recordingChanges && addedSinceDrain.remove(booking.idKey()) == null) {
+            removedSinceDrain.put(booking.idKey(), booking);
+        }
+    }
+
+    private void seriesRemoved(String bookingId) {
+        if (recordingChanges && addedSeriesSinceDrain.remove(bookingId) == null) {
+            removedSeriesSinceDrain.add(bookingId);
+        }
+    }
+
+    private void publish(BookingIntervalTree bookings, int changes) {
+        snapshot = new Snapshot(bookings, snapshot.recurringBookings(), snapshot.bookingVersion() + changes);
+    }
+
+    private static LocalDateTime findConflictEnd(Snapshot current, LocalDateTime startTime, LocalDateTime endTime) {
+        Booking conflict = current.bookings().findOverlapping(startTime, endTime);
+        if (conflict != null) {
+            return conflict.getEndTime();
+        }
+        for (RecurringBooking series : current.recurringBookings()) {
+            LocalDateTime end = series.findOverlappingEnd(startTime, endTime);
+            if (end != null) {
+                return end;
+            }
+        }
+        return null;
     }
 
     public String getId() {
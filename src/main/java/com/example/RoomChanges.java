@@ -0,0 +1,18 @@
+package com.example;
+
+import java.util.List;
+
+/**
+ * What happened to a room since its changes were last drained. Removals are applied before
+ * additions, so a booking that was removed and added again under the same id appears in both lists.
+ */
+public record RoomChanges(List<Booking> removedBookings, List<Booking> addedBookings,
+                          List<String> removedRecurringBookings, List<RecurringBooking> addedRecurringBookings) {
+
+    static final RoomChanges NONE = new RoomChanges(List.of(), List.of(), List.of(), List.of());
+
+    public boolean isEmpty() {
+        return removedBookings.isEmpty() && addedBookings.isEmpty()
+                && removedRecurringBookings.isEmpty() && addedRecurringBookings.isEmpty();
+    }
+}
@@ -2,9 +2,26 @@ package com.example;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RoomRepository {
     Optional<Room> findById(String id);
     List<Room> findAll();
     void save(Room room);
+
+    /**
+     * Persists only what changed in the room since it was last saved, as recorded by
+     * {@link Room#drainChanges()}. Repositories that cannot store a delta save the whole room and
+     * never drain it, so the room never starts recording.
+     */
+    default void saveChanges(Room room) {
+        save(room);
+    }
+
+    /**
+     * Streams the rooms lazily, so callers that stop early do not pay for loading the whole fleet.
+     */
+    default Stream<Room> streamAll() {
+        return findAll().stream();
+    }
 }
@@ -0,0 +1,54 @@
+package com.example;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * View of a {@link RoomRepository} that only exposes the rooms belonging to one shard of a
+ * {@link ShardedBookingSystem}.
+ */
+class ShardRoomRepository implements RoomRepository {
+
+    private final RoomRepository delegate;
+    private final int shard;
+    private final int shardCount;
+
+    ShardRoomRepository(RoomRepository delegate, int shard, int shardCount) {
+        this.delegate = delegate;
+        this.shard = shard;
+        this.shardCount = shardCount;
+    }
+
+    static int shardOf(String roomId, int shardCount) {
+        return roomId == null ? 0 : Math.floorMod(roomId.hashCode(), shardCount);
+    }
+
+    @Override
+    public Optional<Room> findById(String id) {
+        if (shardOf(id, shardCount) != shard) {
+            return Optional.empty();
+        }
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Room> findAll() {
+        return streamAll().toList();
+    }
+
+    @Override
+    public Stream<Room> streamAll() {
+        return delegate.streamAll().filter(room -> shardOf(room.getId(), shardCount) == shard);
+    }
+
+    @Override
+    public void save(Room room) {
+        delegate.save(room);
+    }
+
+    @Override
+    public void saveChanges(Room room) {
+        delegate.saveChanges(room);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partitions the rooms on {@code roomId} over a fixed number of shards. Every shard owns a
+ * {@link BookingSystem} over its own rooms and runs all of its work on a single thread, so
+ * bookings in different shards never contend with each other. Operations are submitted to the
+ * owning shard and complete asynchronously; queries over the whole fleet fan out to every shard
+ * and merge the results. A booking index shared by the shards maps each booking id to its room, so
+ * a cancellation goes straight to the shard that owns the booking. The index is loaded from the
+ * whole repository when the system is created, and looked up on a thread of its own.
+ *
+ * <p>Notifications are sent on the shard thread, so a slow {@link NotificationService} should be
+ * wrapped in an {@link AsyncNotificationService}.
+ */
+public class ShardedBookingSystem implements AutoCloseable {
+
+    private final RoomRepository roomRepository;
+    private final BookingIndex bookingIndex = new BookingIndex();
+    private final BookingSystem[] systems;
+    private final ExecutorService[] loops;
+    private final ExecutorService lookups =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("booking-lookup-", 0).factory());
+
+    public ShardedBookingSystem(TimeProvider timeProvider,
+                                RoomRepository roomRepository,
+                                NotificationService notificationService,
+                                int shardCount) {
+        this(timeProvider, roomRepository, notificationService, BookingMetrics.NONE, shardCount);
+    }
+
+    public ShardedBookingSystem(TimeProvider timeProvider,
+                                RoomRepository roomRepository,
+                                NotificationService notificationService,
+                                BookingMetrics metrics,
+                                int shardCount) {
+        this(timeProvider, roomRepository, notificationService, metrics, SnowflakeBookingIdGenerator.shared(), shardCount);
+    }
+
+    /**
+     * @param idGenerator shared by all shards, so a booking id never occurs in two shards
+     */
+    public ShardedBookingSystem(TimeProvider timeProvider,
+                                RoomRepository roomRepository,
+                                NotificationService notificationService,
+                                BookingMetrics metrics,
+                                BookingIdGenerator idGenerator,
+                                int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.roomRepository = roomRepository;
+        // Laddas från hela lagret här, så att en shard aldrig laddar indexet med bara sina egna rum
+        bookingIndex.load(roomRepository.findAll());
+        systems = new BookingSystem[shardCount];
+        loops = new ExecutorService[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            RoomRepository shardRepository = new ShardRoomRepository(roomRepository, shard, shardCount);
+            systems[shard] = new BookingSystem(timeProvider, shardRepository, notificationService, metrics, idGenerator,
+                    bookingIndex);
+            loops[shard] = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("booking-shard-" + shard).factory());
+        }
+    }
+
+    public int getShardCount() {
+        return systems.length;
+    }
+
+    public CompletableFuture<Boolean> bookRoom(String roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        int shard = ShardRoomRepository.shardOf(roomId, systems.length);
+        return CompletableFuture.supplyAsync(() -> systems[shard].bookRoom(roomId, startTime, endTime), loops[shard]);
+    }
+
+    /**
+     * Splits the requests by shard and books each part on its own shard. The results are in the
+     * same order as the requests.
+     */
+    public CompletableFuture<List<BookingResult>> bookRooms(List<BookingRequest> requests) {
+        if (requests == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Måste ange bokningar"));
+        }
+
+        List<List<Integer>> positions = new ArrayList<>(systems.length);
+        List<List<BookingRequest>> parts = new ArrayList<>(systems.length);
+        for (int shard = 0; shard < systems.length; shard++) {
+            positions.add(new ArrayList<>());
+            parts.add(new ArrayList<>());
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            int shard = ShardRoomRepository.shardOf(request == null ? null : request.roomId(), systems.length);
+            positions.get(shard).add(i);
+            parts.get(shard).add(request);
+        }
+
+        BookingResult[] results = new BookingResult[requests.size()];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int shard = 0; shard < systems.length; shard++) {
+            if (parts.get(shard).isEmpty()) {
+                continue;
+            }
+            BookingSystem system = systems[shard];
+            List<BookingRequest> part = parts.get(shard);
+            List<Integer> partPositions = positions.get(shard);
+            pending.add(CompletableFuture.supplyAsync(() -> system.bookRooms(part), loops[shard])
+                    .thenAccept(partResults -> {
+                        for (int i = 0; i < partResults.size(); i++) {
+                            results[partPositions.get(i)] = partResults.get(i);
+                        }
+                    }));
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new))
+                .thenApply(done -> List.of(results));
+    }
+
+    public CompletableFuture<List<Room>> getAvailableRooms(LocalDateTime startTime, LocalDateTime endTime) {
+        List<CompletableFuture<List<Room>>> perShard = new ArrayList<>(systems.length);
+        for (int shard = 0; shard < systems.length; shard++) {
+            BookingSystem system = systems[shard];
+            perShard.add(CompletableFuture.supplyAsync(() -> system.getAvailableRooms(startTime, endTime), loops[shard]));
+        }
+        return CompletableFuture.allOf(perShard.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    List<Room> rooms = new ArrayList<>();
+                    for (CompletableFuture<List<Room>> shardRooms : perShard) {
+                        rooms.addAll(shardRooms.join());
+                    }
+                    return rooms;
+                });
+    }
+
+    /**
+     * Finds the booking's room in the shared index and cancels it on the shard that owns that room.
+     */
+    public CompletableFuture<Boolean> cancelBooking(String bookingId) {
+        if (bookingId == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Boknings-id kan inte vara null"));
+        }
+
+        return CompletableFuture.supplyAsync(() -> bookingIndex.locate(bookingId, roomRepository), lookups)
+                .thenCompose(booking -> {
+                    if (booking == null) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    int shard = ShardRoomRepository.shardOf(booking.getRoomId(), systems.length);
+                    return CompletableFuture.supplyAsync(() -> systems[shard].cancelBooking(bookingId), loops[shard]);
+                });
+    }
+
+    /**
+     * Stops accepting work and waits for the work already submitted to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        // Uppslagen stängs först, eftersom de lämnar vidare arbete till shardarna
+        lookups.shutdown();
+        lookups.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        for (ExecutorService loop : loops) {
+            loop.shutdown();
+        }
+        for (ExecutorService loop : loops) {
+            loop.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+}
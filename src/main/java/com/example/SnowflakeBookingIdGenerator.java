@@ -0,0 +1,96 @@
+package com.example;
+
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates 64-bit ids made of a millisecond timestamp, a node number and a sequence number, so
+ * ids taken by one thread increase with creation time. {@link #nextId()} returns the id as 16
+ * lowercase hex digits, which sort the same way as the numbers and which {@link Booking} stores as
+ * a single {@code long}.
+ *
+ * <p>The sequence number is split into {@value #STRIPES} stripes, each with its own counter, and a
+ * thread always takes ids from the stripe of its thread id. Ids are taken with a compare-and-set on
+ * that counter, without locks, so threads on different stripes never contend. When more than 256
+ * ids are needed from one stripe in a millisecond the counter borrows from the next millisecond
+ * instead of waiting. Ids from different threads are therefore only ordered by millisecond.
+ *
+ * <p>Ids are only unique across processes if every process that books into the same rooms has its
+ * own node number. {@link #shared()} takes it from the system property {@value #NODE_PROPERTY} and
+ * otherwise picks one at random, which is fast and needs no setup but lets two processes collide
+ * with a probability of one in 1024 per pair. Deployments with several processes should set the
+ * property.
+ */
+public class SnowflakeBookingIdGenerator implements BookingIdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int STRIPE_BITS = 4;
+    static final int STRIPES = 1 << STRIPE_BITS;
+    static final int MAX_NODE = (1 << NODE_BITS) - 1;
+    static final String NODE_PROPERTY = "booking.node";
+
+    private static final int COUNTER_BITS = SEQUENCE_BITS - STRIPE_BITS;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final long node;
+    private final LongSupplier clock;
+    // Tidsstämpel och räknare för det senast utdelade id:t per stripe, i samma long
+    private final AtomicLong[] last = new AtomicLong[STRIPES];
+
+    private static final class Shared {
+        static final SnowflakeBookingIdGenerator INSTANCE = new SnowflakeBookingIdGenerator(configuredNode());
+
+        private static int configuredNode() {
+            Integer node = Integer.getInteger(NODE_PROPERTY);
+            return node != null ? node : ThreadLocalRandom.current().nextInt(MAX_NODE + 1);
+        }
+    }
+
+    public SnowflakeBookingIdGenerator(int node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    public SnowflakeBookingIdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            last[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Returns the generator shared by the whole process, with its node number taken from the system
+     * property {@value #NODE_PROPERTY} or picked at random when the property is not set.
+     */
+    public static SnowflakeBookingIdGenerator shared() {
+        return Shared.INSTANCE;
+    }
+
+    @Override
+    public String nextId() {
+        return HEX.toHexDigits(nextLongId());
+    }
+
+    public long nextLongId() {
+        int stripe = (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+        AtomicLong counter = last[stripe];
+        long now = (clock.getAsLong() - EPOCH_MILLIS) << COUNTER_BITS;
+        long previous;
+        long next;
+        do {
+            previous = counter.get();
+            next = Math.max(previous + 1, now);
+        } while (!counter.compareAndSet(previous, next));
+        long timestamp = next >>> COUNTER_BITS;
+        long sequence = ((long) stripe << COUNTER_BITS) | (next & ((1L << COUNTER_BITS) - 1));
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
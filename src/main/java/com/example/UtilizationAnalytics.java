@@ -0,0 +1,207 @@
+package com.example;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes {@link UtilizationReport}s over all rooms. Rooms are analyzed in parallel, and every room
+ * adds its booked seconds into primitive arrays per hour of the week and per day, which are then
+ * summed into the fleet totals. Recurring bookings are counted per occurrence, and bookings that
+ * have been moved to a {@link BookingArchive} are included so that history can be reported on.
+ */
+public class UtilizationAnalytics {
+
+    private static final long SECONDS_PER_HOUR = 3_600;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final RoomRepository roomRepository;
+    private final BookingArchive archive;
+
+    public UtilizationAnalytics(RoomRepository roomRepository) {
+        this(roomRepository, null);
+    }
+
+    public UtilizationAnalytics(RoomRepository roomRepository, BookingArchive archive) {
+        this.roomRepository = roomRepository;
+        this.archive = archive;
+    }
+
+    public UtilizationReport analyze(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Måste ange både start- och sluttid");
+        }
+
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("Sluttid måste vara efter starttid");
+        }
+
+        Period period = new Period(from, to);
+        List<Room> rooms = roomRepository.findAll();
+        Totals totals = rooms.parallelStream()
+                .map(room -> analyzeRoom(room, period))
+                .collect(() -> new Totals(period), Totals::add, Totals::merge);
+
+        Usage capacity = new Usage(period);
+        capacity.add(period.fromSecond, period.toSecond);
+        return new UtilizationReport(from, to, rooms.size(), totals.utilizationByRoom,
+                totals.booked.byHourOfWeek, capacity.byHourOfWeek, totals.booked.byDay, capacity.byDay);
+    }
+
+    private Usage analyzeRoom(Room room, Period period) {
+        List<Booking> bookings = room.getBookingsBetween(period.from, period.to);
+        List<Booking> archived = archive == null ? List.of() : archive.findByRoomBetween(room.getId(), period.from, period.to);
+        List<RecurringBooking> recurringBookings = room.getRecurringBookings();
+
+        int count = bookings.size() + archived.size();
+        long[] intervals = new long[2 * count];
+        int n = 0;
+        for (Booking booking : bookings) {
+            intervals[n++] = booking.startSecond();
+            intervals[n++] = booking.endSecond();
+        }
+        for (Booking booking : archived) {
+            intervals[n++] = booking.startSecond();
+            intervals[n++] = booking.endSecond();
+        }
+        for (RecurringBooking series : recurringBookings) {
+            long length = ChronoUnit.SECONDS.between(series.getStartTime(), series.getEndTime());
+            for (LocalDateTime start : series.getOccurrencesBetween(period.from, period.to)) {
+                if (n == intervals.length) {
+                    intervals = Arrays.copyOf(intervals, Math.max(16, 2 * intervals.length));
+                }
+                long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+                intervals[n++] = startSecond;
+                intervals[n++] = startSecond + length;
+            }
+        }
+
+        Usage usage = new Usage(period);
+        usage.roomId = room.getId();
+        usage.addMerged(intervals, n / 2);
+        return usage;
+    }
+
+    private static final class Period {
+        final LocalDateTime from;
+        final LocalDateTime to;
+        final long fromSecond;
+        final long toSecond;
+        final long firstDay;
+        final int days;
+
+        Period(LocalDateTime from, LocalDateTime to) {
+            this.from = from;
+            this.to = to;
+            this.fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+            this.toSecond = to.toEpochSecond(ZoneOffset.UTC);
+            this.firstDay = Math.floorDiv(fromSecond, SECONDS_PER_DAY);
+            this.days = (int) (Math.floorDiv(toSecond - 1, SECONDS_PER_DAY) - firstDay + 1);
+        }
+    }
+
+    /**
+     * Booked seconds of one room, or of the whole fleet, per hour of the week and per day.
+     */
+    private static final class Usage {
+        final Period period;
+        final long[] byHourOfWeek = new long[UtilizationReport.HOURS_PER_WEEK];
+        final long[] byDay;
+        String roomId;
+        long total;
+
+        Usage(Period period) {
+            this.period = period;
+            this.byDay = new long[period.days];
+        }
+
+        /**
+         * Adds the union of the intervals, stored as start and end second pairs, so that time covered
+         * by more than one booking is only counted once.
+         */
+        void addMerged(long[] intervals, int count) {
+            long[] starts = new long[count];
+            long[] ends = new long[count];
+            for (int i = 0; i < count; i++) {
+                starts[i] = intervals[2 * i];
+                ends[i] = intervals[2 * i + 1];
+            }
+            Arrays.sort(starts);
+            Arrays.sort(ends);
+
+            // Starter och slut sveps i tidsordning; tiden är bokad så länge minst en bokning pågår
+            int open = 0;
+            long runStart = 0;
+            int s = 0;
+            int e = 0;
+            while (e < count) {
+                if (s < count && starts[s] <= ends[e]) {
+                    if (open++ == 0) {
+                        runStart = starts[s];
+                    }
+                    s++;
+                } else {
+                    if (--open == 0) {
+                        add(runStart, ends[e]);
+                    }
+                    e++;
+                }
+            }
+        }
+
+        void add(long startSecond, long endSecond) {
+            long from = Math.max(startSecond, period.fromSecond);
+            long to = Math.min(endSecond, period.toSecond);
+            // Delas upp per timme så att varje del hamnar i rätt timme och dag
+            while (from < to) {
+                long hour = Math.floorDiv(from, SECONDS_PER_HOUR);
+                long next = Math.min(to, (hour + 1) * SECONDS_PER_HOUR);
+                long seconds = next - from;
+                long day = Math.floorDiv(hour, 24);
+                // 1970-01-01 var en torsdag, index 0 är måndag
+                int dayOfWeek = Math.floorMod(day + 3, 7);
+                byHourOfWeek[dayOfWeek * 24 + Math.floorMod(hour, 24)] += seconds;
+                byDay[(int) (day - period.firstDay)] += seconds;
+                total += seconds;
+                from = next;
+            }
+        }
+    }
+
+    private static final class Totals {
+        final Usage booked;
+        final Map<String, Double> utilizationByRoom = new TreeMap<>();
+        final long capacitySeconds;
+
+        Totals(Period period) {
+            this.booked = new Usage(period);
+            this.capacitySeconds = period.toSecond - period.fromSecond;
+        }
+
+        void add(Usage room) {
+            for (int i = 0; i < booked.byHourOfWeek.length; i++) {
+                booked.byHourOfWeek[i] += room.byHourOfWeek[i];
+            }
+            for (int i = 0; i < booked.byDay.length; i++) {
+                booked.byDay[i] += room.byDay[i];
+            }
+            booked.total += room.total;
+            utilizationByRoom.put(room.roomId, UtilizationReport.percent(room.total, capacitySeconds));
+        }
+
+        void merge(Totals other) {
+            for (int i = 0; i < booked.byHourOfWeek.length; i++) {
+                booked.byHourOfWeek[i] += other.booked.byHourOfWeek[i];
+            }
+            for (int i = 0; i < booked.byDay.length; i++) {
+                booked.byDay[i] += other.booked.byDay[i];
+            }
+            booked.total += other.booked.total;
+            utilizationByRoom.putAll(other.utilizationByRoom);
+        }
+    }
+}
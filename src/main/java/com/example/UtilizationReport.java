@@ -0,0 +1,117 @@
+package com.example;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Utilization of the room fleet over a period, as computed by {@link UtilizationAnalytics}. All
+ * utilization figures are percentages of the time the rooms could have been booked.
+ */
+public class UtilizationReport {
+
+    static final int HOURS_PER_WEEK = 7 * 24;
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final int roomCount;
+    private final Map<String, Double> utilizationByRoom;
+    private final long[] bookedSecondsByHourOfWeek;
+    private final long[] capacitySecondsByHourOfWeek;
+    private final long[] bookedSecondsByDay;
+    private final long[] capacitySecondsByDay;
+
+    UtilizationReport(LocalDateTime from, LocalDateTime to, int roomCount, Map<String, Double> utilizationByRoom,
+                      long[] bookedSecondsByHourOfWeek, long[] capacitySecondsByHourOfWeek,
+                      long[] bookedSecondsByDay, long[] capacitySecondsByDay) {
+        this.from = from;
+        this.to = to;
+        this.roomCount = roomCount;
+        this.utilizationByRoom = Collections.unmodifiableMap(utilizationByRoom);
+        this.bookedSecondsByHourOfWeek = bookedSecondsByHourOfWeek;
+        this.capacitySecondsByHourOfWeek = capacitySecondsByHourOfWeek;
+        this.bookedSecondsByDay = bookedSecondsByDay;
+        this.capacitySecondsByDay = capacitySecondsByDay;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    /**
+     * Utilization of the whole fleet over the whole period.
+     */
+    public double getUtilization() {
+        long booked = 0;
+        long capacity = 0;
+        for (int day = 0; day < bookedSecondsByDay.length; day++) {
+            booked += bookedSecondsByDay[day];
+            capacity += capacitySecondsByDay[day];
+        }
+        return percent(booked, capacity * roomCount);
+    }
+
+    public Map<String, Double> getUtilizationByRoom() {
+        return utilizationByRoom;
+    }
+
+    public Map<LocalDate, Double> getUtilizationByDay() {
+        Map<LocalDate, Double> utilization = new LinkedHashMap<>();
+        LocalDate first = from.toLocalDate();
+        for (int day = 0; day < bookedSecondsByDay.length; day++) {
+            utilization.put(first.plusDays(day), percent(bookedSecondsByDay[day], capacitySecondsByDay[day] * roomCount));
+        }
+        return utilization;
+    }
+
+    /**
+     * Utilization per weekday and hour, indexed as {@code [dayOfWeek.getValue() - 1][hour]}.
+     */
+    public double[][] getHeatmap() {
+        double[][] heatmap = new double[7][24];
+        for (int bucket = 0; bucket < HOURS_PER_WEEK; bucket++) {
+            heatmap[bucket / 24][bucket % 24] = percent(bookedSecondsByHourOfWeek[bucket],
+                    capacitySecondsByHourOfWeek[bucket] * roomCount);
+        }
+        return heatmap;
+    }
+
+    public double getUtilization(DayOfWeek dayOfWeek, int hour) {
+        int bucket = (dayOfWeek.getValue() - 1) * 24 + hour;
+        return percent(bookedSecondsByHourOfWeek[bucket], capacitySecondsByHourOfWeek[bucket] * roomCount);
+    }
+
+    /**
+     * Hour of the day with the most booked time across all weekdays, or -1 if nothing was booked.
+     */
+    public int getPeakHour() {
+        long[] bookedByHour = new long[24];
+        for (int bucket = 0; bucket < HOURS_PER_WEEK; bucket++) {
+            bookedByHour[bucket % 24] += bookedSecondsByHourOfWeek[bucket];
+        }
+        int peak = -1;
+        long peakSeconds = 0;
+        for (int hour = 0; hour < 24; hour++) {
+            if (bookedByHour[hour] > peakSeconds) {
+                peak = hour;
+                peakSeconds = bookedByHour[hour];
+            }
+        }
+        return peak;
+    }
+
+    static double percent(long booked, long capacity) {
+        return capacity == 0 ? 0 : 100.0 * booked / capacity;
+    }
+}
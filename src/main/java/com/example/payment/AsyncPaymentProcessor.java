@@ -0,0 +1,131 @@
+package com.example.payment;
+
+import com.example.NotificationException;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Processes payments like {@link PaymentProcessor}, but on virtual threads so the caller is never
+ * blocked. At most a configured number of payments are charged and saved at once, the charge and
+ * the save each have their own timeout, and the returned future completes as soon as the outcome
+ * is saved; the confirmation email is sent afterwards.
+ */
+public class AsyncPaymentProcessor implements AutoCloseable {
+
+    private final PaymentApi paymentApi;
+    private final PaymentRepository paymentRepository;
+    private final PaymentCredentials paymentCredentials;
+    private final EmailService emailService;
+    private final Semaphore permits;
+    private final Duration chargeTimeout;
+    private final Duration saveTimeout;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("payment-", 0).factory());
+
+    /**
+     * @param maxConcurrentPayments how many payments may be charged or saved at the same time
+     * @param chargeTimeout         how long to wait for the payment API before the payment counts as failed
+     * @param saveTimeout           how long to wait for the repository before the future fails
+     */
+    public AsyncPaymentProcessor(PaymentApi paymentApi, PaymentRepository paymentRepository,
+                                 PaymentCredentials paymentCredentials, EmailService emailService,
+                                 int maxConcurrentPayments, Duration chargeTimeout, Duration saveTimeout) {
+        if (maxConcurrentPayments <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent payments must be positive");
+        }
+        if (!chargeTimeout.isPositive() || !saveTimeout.isPositive()) {
+            throw new IllegalArgumentException("Timeouts must be positive");
+        }
+        this.paymentApi = paymentApi;
+        this.paymentRepository = paymentRepository;
+        this.paymentCredentials = paymentCredentials;
+        this.emailService = emailService;
+        this.permits = new Semaphore(maxConcurrentPayments);
+        this.chargeTimeout = chargeTimeout;
+        this.saveTimeout = saveTimeout;
+    }
+
+    /**
+     * Completes with whether the payment succeeded once its outcome is saved. A charge that fails,
+     * throws or times out is saved as a failure; a save that fails or times out fails the future.
+     */
+    public CompletableFuture<Boolean> processPayment(double amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        executor.execute(() -> process(amount, result));
+        return result;
+    }
+
+    /**
+     * Waits for every started payment and confirmation email to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private void process(double amount, CompletableFuture<Boolean> result) {
+        boolean success;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+        try {
+            success = charge(amount);
+            PaymentStatus status = success ? PaymentStatus.SUCCESS : PaymentStatus.FAILURE;
+            callWithTimeout(() -> paymentRepository.save(amount, status.toString()), saveTimeout);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+            return;
+        } finally {
+            permits.release();
+        }
+
+        result.complete(success);
+        if (success) {
+            try {
+                emailService.sendPaymentConfirmation(paymentCredentials.getEmailAddress(), amount);
+            } catch (NotificationException e) {
+                // Continues even if notification fails
+            }
+        }
+    }
+
+    private boolean charge(double amount) throws InterruptedException {
+        try {
+            return callWithTimeout(() -> paymentApi.charge(paymentCredentials.getApiKey(), amount), chargeTimeout)
+                    .isSuccess();
+        } catch (TimeoutException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private <T> T callWithTimeout(Callable<T> stage, Duration timeout) throws InterruptedException, TimeoutException {
+        Future<T> future = executor.submit(stage);
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+}
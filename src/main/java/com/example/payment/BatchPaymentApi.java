@@ -0,0 +1,15 @@
+package com.example.payment;
+
+import java.util.List;
+
+/**
+ * A {@link PaymentApi} that can charge many amounts in one round trip.
+ */
+public interface BatchPaymentApi extends PaymentApi {
+
+    /**
+     * Returns one response per amount, in the same order. Throws if the batch as a whole failed.
+     */
+    List<PaymentApiResponse> chargeAll(String apiKey, List<Double> amounts) throws RuntimeException;
+
+}
@@ -0,0 +1,161 @@
+package com.example.payment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentRepository} that groups concurrent saves into one {@link PaymentRepository#saveAll}
+ * on the underlying repository (group commit). A batch is written when it is full or when its
+ * oldest payment has waited the maximum delay. Every save still blocks until its own payment has
+ * been written and returns that payment's result.
+ */
+public class BatchingPaymentRepository implements PaymentRepository, AutoCloseable {
+
+    private static final PendingSave CLOSED = new PendingSave(null, null);
+
+    private final PaymentRepository delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingSave> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private boolean closed;
+
+    private record PendingSave(PaymentRecord payment, CompletableFuture<Boolean> written) {
+    }
+
+    /**
+     * @param maxDelay how long a payment may wait for others to share its write; 0 only groups
+     *                 payments that are already waiting
+     */
+    public BatchingPaymentRepository(PaymentRepository delegate, int maxBatchSize, long maxDelay, TimeUnit unit) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be positive");
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("Maximum delay must not be negative");
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.writer = Thread.ofVirtual().name("payment-writer").start(this::writeBatches);
+    }
+
+    @Override
+    public boolean save(double amount, String status) {
+        return await(enqueue(List.of(new PaymentRecord(amount, status)))).getFirst();
+    }
+
+    @Override
+    public List<Boolean> saveAll(List<PaymentRecord> payments) {
+        return await(enqueue(payments));
+    }
+
+    /**
+     * Writes the payments that are already queued and stops the writer.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(CLOSED);
+        }
+        writer.join();
+    }
+
+    private synchronized List<CompletableFuture<Boolean>> enqueue(List<PaymentRecord> payments) {
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+        List<CompletableFuture<Boolean>> written = new ArrayList<>(payments.size());
+        for (PaymentRecord payment : payments) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            queue.add(new PendingSave(payment, future));
+            written.add(future);
+        }
+        return written;
+    }
+
+    private static List<Boolean> await(List<CompletableFuture<Boolean>> written) {
+        List<Boolean> results = new ArrayList<>(written.size());
+        try {
+            for (CompletableFuture<Boolean> future : written) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private void writeBatches() {
+        List<PendingSave> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (true) {
+                PendingSave first = queue.take();
+                if (first == CLOSED) {
+                    return;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                boolean closing = false;
+                while (batch.size() < maxBatchSize) {
+                    PendingSave next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == CLOSED) {
+                        closing = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+                if (closing) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Ingen skriver längre, så väntande sparningar får ett fel i stället för att hänga
+            IllegalStateException failure = new IllegalStateException("Payment writer was interrupted", e);
+            synchronized (this) {
+                closed = true;
+            }
+            batch.forEach(pending -> pending.written().completeExceptionally(failure));
+            queue.forEach(pending -> {
+                if (pending != CLOSED) {
+                    pending.written().completeExceptionally(failure);
+                }
+            });
+        }
+    }
+
+    private void write(List<PendingSave> batch) {
+        List<PaymentRecord> payments = new ArrayList<>(batch.size());
+        for (PendingSave pending : batch) {
+            payments.add(pending.payment());
+        }
+        try {
+            List<Boolean> results = delegate.saveAll(payments);
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " results but got " + results.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).written().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.written().completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.payment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of each attempt by its idempotency key. A duplicate that arrives while the
+ * first attempt is running waits for it, and one that arrives later gets the stored outcome, until
+ * it expires. An attempt can record its outcome before it has finished, for example once a payment
+ * has been charged; an attempt that throws before recording is not remembered, so the request can be
+ * retried. A key is bound to the request it was first used for, and reusing it for another request
+ * is rejected. When the cache is full the oldest finished outcomes are dropped; running attempts are
+ * never dropped.
+ */
+public class IdempotencyCache<V> {
+
+    private final Clock clock;
+    private final int maximumSize;
+    private final long timeToLiveMillis;
+    private final Map<String, Attempt<V>> attempts = new LinkedHashMap<>();
+
+    private static final class Attempt<V> {
+        final Object request;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        Attempt(Object request) {
+            this.request = request;
+        }
+    }
+
+    public IdempotencyCache(int maximumSize, Duration timeToLive) {
+        this(Clock.systemUTC(), maximumSize, timeToLive);
+    }
+
+    /**
+     * @param timeToLive how long a finished outcome is kept, counted from when it finished
+     */
+    public IdempotencyCache(Clock clock, int maximumSize, Duration timeToLive) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (!timeToLive.isPositive()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        this.clock = clock;
+        this.maximumSize = maximumSize;
+        this.timeToLiveMillis = timeToLive.toMillis();
+    }
+
+    /**
+     * Runs the attempt unless the key already has a running or remembered one, and returns its outcome.
+     */
+    public V getOrCompute(String key, Supplier<V> attempt) {
+        return getOrCompute(key, null, outcome -> attempt.get());
+    }
+
+    /**
+     * Runs the attempt unless the key already has a running or remembered one for an equal request,
+     * and returns its outcome. The attempt may pass its outcome to the given consumer as soon as it
+     * is decided; from then on the outcome is kept even if the attempt goes on to throw.
+     *
+     * @param request what the key was used for, compared with {@link Objects#equals} on reuse
+     * @throws IllegalArgumentException if the key is already used for a different request
+     */
+    public V getOrCompute(String key, Object request, Function<Consumer<V>, V> attempt) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key is required");
+        }
+        Attempt<V> existing;
+        Attempt<V> started = new Attempt<>(request);
+        synchronized (this) {
+            existing = attempts.get(key);
+            if (existing != null && existing.expiresAt <= clock.millis()) {
+                attempts.remove(key);
+                existing = null;
+            }
+            if (existing == null) {
+                attempts.put(key, started);
+                evictOverflow();
+            }
+        }
+        if (existing != null) {
+            if (!Objects.equals(existing.request, request)) {
+                throw new IllegalArgumentException("Idempotency key was already used for a different request");
+            }
+            return await(existing.result);
+        }
+
+        V value;
+        try {
+            value = attempt.apply(outcome -> remember(started, outcome));
+        } catch (RuntimeException | Error e) {
+            // Ett utfall som redan registrerats står kvar, så att försöket inte görs om
+            if (!started.result.isDone()) {
+                synchronized (this) {
+                    attempts.remove(key, started);
+                }
+                started.result.completeExceptionally(e);
+            }
+            throw e;
+        }
+        remember(started, value);
+        return value;
+    }
+
+    private void remember(Attempt<V> attempt, V value) {
+        if (!attempt.result.isDone()) {
+            attempt.expiresAt = clock.millis() + timeToLiveMillis;
+            attempt.result.complete(value);
+        }
+    }
+
+    public synchronized int size() {
+        return attempts.size();
+    }
+
+    private void evictOverflow() {
+        long now = clock.millis();
+        Iterator<Attempt<V>> iterator = attempts.values().iterator();
+        // Äldst först; pågående försök hoppas över även om cachen då blir för stor
+        while (attempts.size() > maximumSize && iterator.hasNext()) {
+            Attempt<V> eldest = iterator.next();
+            if (eldest.result.isDone() || eldest.expiresAt <= now) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
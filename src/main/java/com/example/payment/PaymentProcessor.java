@@ -2,48 +2,204 @@ package com.example.payment;
 
 import com.example.NotificationException;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
 public class PaymentProcessor {
 
+    static final int BATCH_SIZE = 500;
+    static final int MAX_CONCURRENT_CHARGES = 64;
+    static final int MAX_CONCURRENT_EMAILS = 64;
+    static final int IDEMPOTENCY_KEYS = 100_000;
+    static final Duration IDEMPOTENCY_TIME_TO_LIVE = Duration.ofHours(24);
+
     private final PaymentApi paymentApi;
     private final PaymentRepository paymentRepository;
     private final PaymentCredentials paymentCredentials;
     private final EmailService emailService;
+    private final IdempotencyCache<Boolean> idempotencyCache;
 
 
     public PaymentProcessor(PaymentApi paymentApi, PaymentRepository paymentRepository, PaymentCredentials paymentCredentials, EmailService emailService) {
+        this(paymentApi, paymentRepository, paymentCredentials, emailService,
+                new IdempotencyCache<>(IDEMPOTENCY_KEYS, IDEMPOTENCY_TIME_TO_LIVE));
+    }
+
+    public PaymentProcessor(PaymentApi paymentApi, PaymentRepository paymentRepository, PaymentCredentials paymentCredentials,
+                            EmailService emailService, IdempotencyCache<Boolean> idempotencyCache) {
         this.paymentApi = paymentApi;
         this.paymentRepository = paymentRepository;
         this.paymentCredentials = paymentCredentials;
         this.emailService = emailService;
+        this.idempotencyCache = idempotencyCache;
     }
 
     public boolean processPayment(double amount) {
-        if (amount <= 0) {
-            throw new IllegalArgumentException("Amount must be positive");
+        validateAmount(amount);
+        return complete(amount, charge(amount));
+    }
+
+    /**
+     * Processes the payment at most once per idempotency key. A retry with the same key waits for
+     * or reuses the outcome of the first attempt instead of charging again. The outcome is kept as
+     * soon as the payment has been charged, so a failure while saving or sending the confirmation
+     * does not make a retry charge again.
+     *
+     * @throws IllegalArgumentException if the key was already used for a different amount
+     */
+    public boolean processPayment(String idempotencyKey, double amount) {
+        validateAmount(amount);
+        return idempotencyCache.getOrCompute(idempotencyKey, amount, outcome -> {
+            boolean success = charge(amount);
+            outcome.accept(success);
+            return complete(amount, success);
+        });
+    }
+
+    /**
+     * Processes every amount and returns whether each payment succeeded, in the same order.
+     * A {@link BatchPaymentApi} is charged in batches of {@value #BATCH_SIZE}, and each batch is
+     * saved with one {@link PaymentRepository#saveAll}, while the confirmations of earlier batches
+     * are sent on virtual threads; any other API gets up to {@value #MAX_CONCURRENT_CHARGES} single
+     * charges in flight at once.
+     */
+    public List<Boolean> processPayments(List<Double> amounts) {
+        if (amounts == null) {
+            throw new IllegalArgumentException("Amounts are required");
+        }
+        for (Double amount : amounts) {
+            if (amount == null) {
+                throw new IllegalArgumentException("Amount is required");
+            }
+            validateAmount(amount);
         }
 
-        PaymentApiResponse response;
+        if (paymentApi instanceof BatchPaymentApi batchPaymentApi) {
+            List<Boolean> results = new ArrayList<>(amounts.size());
+            List<Future<?>> confirmations = new ArrayList<>();
+            Semaphore permits = new Semaphore(MAX_CONCURRENT_EMAILS);
+            // Executorn stängs först när alla bekräftelser har skickats
+            try (ExecutorService emails = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int from = 0; from < amounts.size(); from += BATCH_SIZE) {
+                    List<Double> batch = amounts.subList(from, Math.min(from + BATCH_SIZE, amounts.size()));
+                    List<Boolean> charged = processBatch(batchPaymentApi, batch);
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (charged.get(i)) {
+                            confirmations.add(sendConfirmationAsync(emails, permits, batch.get(i)));
+                        }
+                    }
+                    results.addAll(charged);
+                }
+            }
+            rethrowFirstFailure(confirmations);
+            return results;
+        }
+
+        List<Future<Boolean>> pending = new ArrayList<>(amounts.size());
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_CHARGES);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (double amount : amounts) {
+                permits.acquireUninterruptibly();
+                pending.add(executor.submit(() -> {
+                    try {
+                        return processPayment(amount);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        rethrowFirstFailure(pending);
+        List<Boolean> results = new ArrayList<>(pending.size());
+        for (Future<Boolean> payment : pending) {
+            results.add(payment.resultNow());
+        }
+        return results;
+    }
+
+    /**
+     * Charges and saves one batch. Confirmations are left to the caller.
+     */
+    private List<Boolean> processBatch(BatchPaymentApi batchPaymentApi, List<Double> batch) {
+        List<PaymentApiResponse> responses;
 
         try {
-            response = paymentApi.charge(paymentCredentials.getApiKey(), amount);
+            responses = batchPaymentApi.chargeAll(paymentCredentials.getApiKey(), batch);
+            if (responses.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " responses but got " + responses.size());
+            }
         } catch (RuntimeException e) {
-            paymentRepository.save(amount, PaymentStatus.FAILURE.toString());
-            return false;
+            responses = null;
         }
 
-        if (response.isSuccess()) {
-            paymentRepository.save(amount, PaymentStatus.SUCCESS.toString());
+        List<Boolean> results = new ArrayList<>(batch.size());
+        List<PaymentRecord> payments = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            boolean success = responses != null && responses.get(i).isSuccess();
+            results.add(success);
+            payments.add(new PaymentRecord(batch.get(i), status(success)));
+        }
+        paymentRepository.saveAll(payments);
+        return results;
+    }
 
+    private Future<?> sendConfirmationAsync(ExecutorService emails, Semaphore permits, double amount) {
+        permits.acquireUninterruptibly();
+        return emails.submit(() -> {
             try {
-                emailService.sendPaymentConfirmation(paymentCredentials.getEmailAddress(), amount);
-            } catch (NotificationException e) {
-                // Continues even if notification fails
+                sendConfirmation(amount);
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private static void rethrowFirstFailure(List<? extends Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            if (task.state() == Future.State.FAILED && task.exceptionNow() instanceof RuntimeException e) {
+                throw e;
             }
+        }
+    }
+
+    private boolean charge(double amount) {
+        try {
+            return paymentApi.charge(paymentCredentials.getApiKey(), amount).isSuccess();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
 
-            return true;
+    private boolean complete(double amount, boolean success) {
+        paymentRepository.save(amount, status(success));
+        if (success) {
+            sendConfirmation(amount);
+        }
+        return success;
+    }
+
+    private void sendConfirmation(double amount) {
+        try {
+            emailService.sendPaymentConfirmation(paymentCredentials.getEmailAddress(), amount);
+        } catch (NotificationException e) {
+            // Continues even if notification fails
+        }
+    }
+
+    private static String status(boolean success) {
+        return (success ? PaymentStatus.SUCCESS : PaymentStatus.FAILURE).toString();
+    }
+
+    private static void validateAmount(double amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
         }
-        paymentRepository.save(amount, PaymentStatus.FAILURE.toString());
-        return false;
     }
 }
 
@@ -0,0 +1,5 @@
+package com.example.payment;
+
+public record PaymentRecord(double amount, String status) {
+
+}
@@ -1,6 +1,21 @@
 package com.example.payment;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface PaymentRepository {
     boolean save(double amount, String status);
 
+    /**
+     * Saves every payment and returns the result of each save, in the same order. Repositories
+     * that can write many payments at once should override this.
+     */
+    default List<Boolean> saveAll(List<PaymentRecord> payments) {
+        List<Boolean> results = new ArrayList<>(payments.size());
+        for (PaymentRecord payment : payments) {
+            results.add(save(payment.amount(), payment.status()));
+        }
+        return results;
+    }
+
 }
@@ -0,0 +1,170 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link AsyncNotificationService} class.
+ * Tests that notifications are sent off the caller's thread and that back-pressure and counters behave.
+ */
+@DisplayName("Async Notification Service Tests")
+class AsyncNotificationServiceTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2026, 1, 28, 13, 0);
+    private static final Booking BOOKING = new Booking("booking_id", "room_id", START_TIME, START_TIME.plusHours(1));
+
+    /**
+     * A notification service that blocks until released and fails cancellations.
+     */
+    private static final class GatedNotificationService implements NotificationService {
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public void sendBookingConfirmation(Booking booking) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void sendCancellationConfirmation(Booking booking) throws NotificationException {
+            throw new NotificationException("Notification failed");
+        }
+    }
+
+    /**
+     * Verifies that callers are not held up by a slow notification service and that results are counted.
+     */
+    @Test
+    @DisplayName("Send: should return immediately and count sent and failed notifications")
+    void send_returnsImmediately_andCountsOutcomes() throws Exception {
+        GatedNotificationService delegate = new GatedNotificationService();
+        AsyncNotificationService service = new AsyncNotificationService(delegate, 100, 10, AsyncNotificationService.BackPressure.BLOCK);
+
+        for (int i = 0; i < 5; i++) {
+            service.sendBookingConfirmation(BOOKING);
+        }
+        service.sendCancellationConfirmation(BOOKING);
+        assertThat(service.getSentCount()).isZero();
+
+        delegate.gate.countDown();
+        service.close();
+
+        assertThat(service.getQueuedCount()).isEqualTo(6);
+        assertThat(service.getSentCount()).isEqualTo(5);
+        assertThat(service.getFailedCount()).isEqualTo(1);
+        assertThat(service.getPendingCount()).isZero();
+    }
+
+    /**
+     * Verifies that the DROP policy discards notifications instead of blocking when the queue is full.
+     */
+    @Test
+    @DisplayName("Back-pressure DROP: should discard notifications when queue is full")
+    void dropPolicy_discardsNotifications_whenQueueIsFull() throws Exception {
+        GatedNotificationService delegate = new GatedNotificationService();
+        AsyncNotificationService service = new AsyncNotificationService(delegate, 1, 1, AsyncNotificationService.BackPressure.DROP);
+
+        for (int i = 0; i < 10; i++) {
+            service.sendBookingConfirmation(BOOKING);
+        }
+        delegate.gate.countDown();
+        service.close();
+
+        assertThat(service.getDroppedCount()).isGreaterThanOrEqualTo(8);
+        assertThat(service.getSentCount() + service.getDroppedCount()).isEqualTo(10);
+    }
+
+    /**
+     * Verifies that the SPILL policy keeps every notification even when the queue is full.
+     */
+    @Test
+    @DisplayName("Back-pressure SPILL: should keep notifications that do not fit in the queue")
+    void spillPolicy_keepsNotifications_whenQueueIsFull() throws Exception {
+        GatedNotificationService delegate = new GatedNotificationService();
+        AsyncNotificationService service = new AsyncNotificationService(delegate, 1, 4, AsyncNotificationService.BackPressure.SPILL);
+
+        for (int i = 0; i < 10; i++) {
+            service.sendBookingConfirmation(BOOKING);
+        }
+        delegate.gate.countDown();
+        service.close();
+
+        assertThat(service.getDroppedCount()).isZero();
+        assertThat(service.getSentCount()).isEqualTo(10);
+    }
+
+    /**
+     * Verifies that notifications are rejected once the service has been closed.
+     */
+    @Test
+    @DisplayName("Send: should throw NotificationException after close")
+    void send_throwsException_afterClose() throws Exception {
+        AsyncNotificationService service = new AsyncNotificationService(new GatedNotificationService(), 1, 1, AsyncNotificationService.BackPressure.BLOCK);
+        service.close();
+
+        assertThatThrownBy(() -> service.sendBookingConfirmation(BOOKING))
+                .isInstanceOf(NotificationException.class)
+                .hasMessage("Notification queue is closed");
+    }
+
+    /**
+     * Verifies that a notification racing close is either sent or rejected, never left in the queue,
+     * even when producers are waiting for room in a full queue.
+     */
+    @Test
+    @DisplayName("Close: should send or reject every notification that races it")
+    void close_sendsOrRejectsNotifications_thatRaceIt() throws Exception {
+        AsyncNotificationService service = new AsyncNotificationService(new NotificationService() {
+            @Override
+            public void sendBookingConfirmation(Booking booking) {
+            }
+
+            @Override
+            public void sendCancellationConfirmation(Booking booking) {
+            }
+        }, 1, 1, AsyncNotificationService.BackPressure.BLOCK);
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(8);
+
+        try (ExecutorService producers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(producers.submit(() -> {
+                    started.countDown();
+                    for (int j = 0; j < 1_000; j++) {
+                        try {
+                            service.sendBookingConfirmation(BOOKING);
+                        } catch (NotificationException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            started.await();
+            service.close();
+            for (Future<?> result : results) {
+                result.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(service.getSentCount() + rejected.get()).isEqualTo(8_000);
+        assertThat(service.getPendingCount()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link BookingArchiver} class.
+ * Tests manual and scheduled archival runs.
+ */
+@DisplayName("Booking Archiver Tests")
+@ExtendWith(MockitoExtension.class)
+class BookingArchiverTest {
+
+    @Mock
+    BookingSystem bookingSystem;
+    @Mock
+    BookingArchive archive;
+
+    /**
+     * Verifies that a manual run archives through the booking system and counts the moved bookings.
+     */
+    @Test
+    @DisplayName("Archive now: should count archived bookings")
+    void archiveNow_countsArchivedBookings() {
+        when(bookingSystem.archiveFinishedBookings(archive)).thenReturn(3, 2);
+
+        try (BookingArchiver archiver = new BookingArchiver(bookingSystem, archive, 1, TimeUnit.HOURS)) {
+            assertThat(archiver.archiveNow()).isEqualTo(3);
+            assertThat(archiver.archiveNow()).isEqualTo(2);
+            assertThat(archiver.getArchivedCount()).isEqualTo(5);
+        }
+    }
+
+    /**
+     * Verifies that a failing scheduled run is counted and does not stop later runs.
+     */
+    @Test
+    @DisplayName("Scheduled run: should keep running after a failed run")
+    void scheduledRun_continuesAfterFailure() {
+        when(bookingSystem.archiveFinishedBookings(archive))
+                .thenThrow(new IllegalStateException("Lagringsfel"))
+                .thenReturn(1);
+
+        try (BookingArchiver archiver = new BookingArchiver(bookingSystem, archive, 10, TimeUnit.MILLISECONDS)) {
+            verify(bookingSystem, timeout(1000).atLeast(2)).archiveFinishedBookings(archive);
+            assertThat(archiver.getFailedRunCount()).isEqualTo(1);
+        }
+    }
+
+    /**
+     * Verifies that a non-positive interval is rejected.
+     */
+    @Test
+    @DisplayName("Constructor: non-positive interval should throw IllegalArgumentException")
+    void constructor_throwsException_whenIntervalIsNotPositive() {
+        assertThatThrownBy(() -> new BookingArchiver(bookingSystem, archive, 0, TimeUnit.SECONDS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Interval must be positive");
+    }
+}
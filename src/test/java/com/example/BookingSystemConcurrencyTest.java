@@ -0,0 +1,211 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stress tests for {@link BookingSystem} under concurrent load.
+ * Many threads compete for overlapping periods in a handful of rooms.
+ */
+@DisplayName("Booking System Concurrency Tests")
+class BookingSystemConcurrencyTest {
+
+    private static final LocalDateTime CURRENT_TIME = LocalDateTime.of(2026, 1, 28, 12, 0);
+    private static final int ROOMS = 4;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+
+    private InMemoryRoomRepository roomRepository;
+    private NotificationService notificationService;
+    private BookingSystem bookingSystem;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = new InMemoryRoomRepository();
+        for (int i = 0; i < ROOMS; i++) {
+            roomRepository.save(new Room("room_" + i, "Rum " + i));
+        }
+        notificationService = new NotificationService() {
+            @Override
+            public void sendBookingConfirmation(Booking booking) {
+            }
+
+            @Override
+            public void sendCancellationConfirmation(Booking booking) {
+            }
+        };
+        bookingSystem = new BookingSystem(() -> CURRENT_TIME, roomRepository, notificationService);
+    }
+
+    /**
+     * Verifies that concurrent bookings of overlapping periods never produce two overlapping
+     * bookings in the same room, and that every successful call is backed by a stored booking.
+     */
+    @Test
+    @DisplayName("Concurrent bookRoom: should never create overlapping bookings")
+    void bookRoom_neverCreatesOverlappingBookings_underContention() throws Exception {
+        int successes = bookConcurrently(bookingSystem);
+
+        assertStoredWithoutOverlaps(roomRepository.findAll(), successes);
+    }
+
+    /**
+     * Verifies that two threads cannot both book the same period when the repository hands out a
+     * new copy of the room on every lookup, as a file- or database-backed repository does.
+     */
+    @Test
+    @DisplayName("Concurrent bookRoom: should not double book when each lookup returns a copy")
+    void bookRoom_neverCreatesOverlappingBookings_whenRepositoryReturnsCopies() throws Exception {
+        CopyingRoomRepository copyingRepository = new CopyingRoomRepository();
+        for (int i = 0; i < ROOMS; i++) {
+            copyingRepository.save(new Room("room_" + i, "Rum " + i));
+        }
+        BookingSystem copyingSystem = new BookingSystem(() -> CURRENT_TIME, copyingRepository, notificationService);
+
+        int successes = bookConcurrently(copyingSystem);
+
+        assertStoredWithoutOverlaps(copyingRepository.findAll(), successes);
+    }
+
+    /**
+     * Verifies that concurrent bookings and cancellations keep the room and its indexes consistent.
+     */
+    @Test
+    @DisplayName("Concurrent bookRoom and cancelBooking: should leave rooms consistent")
+    void bookAndCancel_leaveRoomsConsistent_underContention() throws Exception {
+        bookingSystem.getAvailableRooms(CURRENT_TIME, CURRENT_TIME.plusHours(1));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        Room room = roomRepository.findById("room_" + random.nextInt(ROOMS)).orElseThrow();
+                        List<Booking> bookings = room.getBookings();
+                        if (!bookings.isEmpty() && random.nextBoolean()) {
+                            bookingSystem.cancelBooking(bookings.get(random.nextInt(bookings.size())).getId());
+                        } else {
+                            LocalDateTime startTime = CURRENT_TIME.plusMinutes(15L * random.nextInt(50));
+                            bookingSystem.bookRoom(room.getId(), startTime, startTime.plusMinutes(30));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        for (int slot = 0; slot < 60; slot++) {
+            LocalDateTime from = CURRENT_TIME.plusMinutes(10L * slot);
+            LocalDateTime to = from.plusMinutes(20);
+            List<Room> expectedAvailable = roomRepository.findAll().stream()
+                    .filter(room -> room.isAvailable(from, to))
+                    .toList();
+            assertThat(bookingSystem.getAvailableRooms(from, to))
+                    .containsExactlyInAnyOrderElementsOf(expectedAvailable);
+        }
+        for (Room room : roomRepository.findAll()) {
+            List<Booking> bookings = room.getBookings();
+            for (int i = 1; i < bookings.size(); i++) {
+                Booking previous = bookings.get(i - 1);
+                assertThat(bookings.get(i).overlaps(previous.getStartTime(), previous.getEndTime())).isFalse();
+            }
+        }
+    }
+
+    private static int bookConcurrently(BookingSystem system) throws Exception {
+        AtomicInteger successes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        String roomId = "room_" + random.nextInt(ROOMS);
+                        LocalDateTime startTime = CURRENT_TIME.plusMinutes(15L * random.nextInt(200));
+                        LocalDateTime endTime = startTime.plusMinutes(15L * (1 + random.nextInt(8)));
+                        if (system.bookRoom(roomId, startTime, endTime)) {
+                            successes.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return successes.get();
+    }
+
+    private static void assertStoredWithoutOverlaps(List<Room> rooms, int successes) {
+        int stored = 0;
+        for (Room room : rooms) {
+            List<Booking> bookings = room.getBookings();
+            stored += bookings.size();
+            for (int i = 1; i < bookings.size(); i++) {
+                Booking previous = bookings.get(i - 1);
+                assertThat(bookings.get(i).overlaps(previous.getStartTime(), previous.getEndTime()))
+                        .as("booking %s overlaps %s", bookings.get(i).getId(), previous.getId())
+                        .isFalse();
+            }
+        }
+        assertThat(stored).isEqualTo(successes).isPositive();
+    }
+
+    /**
+     * Repository that stores and returns copies, so every lookup gets a room of its own.
+     */
+    private static final class CopyingRoomRepository implements RoomRepository {
+        private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<Room> findById(String id) {
+            return Optional.ofNullable(rooms.get(id)).map(CopyingRoomRepository::copyOf);
+        }
+
+        @Override
+        public List<Room> findAll() {
+            return rooms.values().stream().map(CopyingRoomRepository::copyOf).toList();
+        }
+
+        @Override
+        public void save(Room room) {
+            rooms.put(room.getId(), copyOf(room));
+        }
+
+        private static Room copyOf(Room room) {
+            Room copy = new Room(room.getId(), room.getName());
+            room.getBookings().forEach(copy::addBooking);
+            return copy;
+        }
+    }
+}
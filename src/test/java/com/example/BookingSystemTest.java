@@ -7,13 +7,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -42,6 +48,10 @@ class BookingSystemTest {
     NotificationService notificationService;
     @Mock
     Room room;
+    @Mock
+    BookingMetrics metrics;
+    @Spy
+    BookingIdGenerator idGenerator = new SnowflakeBookingIdGenerator(1);
 
     @InjectMocks
     BookingSystem bookingSystem;
@@ -150,7 +160,25 @@ class BookingSystemTest {
 
             assertThat(result).isTrue();
             verify(room).addBooking(any(Booking.class));
-            verify(roomRepository).save(room);
+            verify(roomRepository).saveChanges(room);
+        }
+
+        /**
+         * Verifies that the booking gets its id from the configured id generator.
+         */
+        @DisplayName("Book room: Should use the id generator for the booking id")
+        @Test
+        void bookRoom_usesIdGenerator() {
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
+            when(room.isAvailable(START_TIME, END_TIME)).thenReturn(true);
+            when(idGenerator.nextId()).thenReturn(BOOKING_ID);
+
+            bookingSystem.bookRoom(ROOM_ID, START_TIME, END_TIME);
+
+            ArgumentCaptor<Booking> booking = ArgumentCaptor.forClass(Booking.class);
+            verify(room).addBooking(booking.capture());
+            assertThat(booking.getValue().getId()).isEqualTo(BOOKING_ID);
         }
 
         /**
@@ -170,10 +198,112 @@ class BookingSystemTest {
 
             assertThat(result).isTrue();
             verify(room).addBooking(any(Booking.class));
-            verify(roomRepository).save(room);
+            verify(roomRepository).saveChanges(room);
             verify(notificationService).sendBookingConfirmation(any(Booking.class));
+            verify(metrics).recordNotificationFailure();
 
         }
+
+        /**
+         * Verifies that a booking rejected because the room is taken is counted as a conflict and timed.
+         */
+        @DisplayName("Book room: Should record conflict and latency when room is not available")
+        @Test
+        void bookRoom_recordsConflictAndLatency_whenRoomIsNotAvailable() {
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
+            when(room.isAvailable(START_TIME, END_TIME)).thenReturn(false);
+
+            bookingSystem.bookRoom(ROOM_ID, START_TIME, END_TIME);
+
+            verify(metrics).recordConflict();
+            verify(metrics).recordLatency(eq(BookingMetrics.Operation.BOOK_ROOM), anyLong());
+        }
+
+        /**
+         * Verifies that a booking with invalid parameters is counted as a rejection.
+         */
+        @DisplayName("Book room: Should record rejection when parameters are invalid")
+        @Test
+        void bookRoom_recordsRejection_whenParametersAreInvalid() {
+
+            assertThatThrownBy(() -> bookingSystem.bookRoom(null, START_TIME, END_TIME))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verify(metrics).recordRejection(BookingMetrics.Operation.BOOK_ROOM);
+            verify(metrics, never()).recordConflict();
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests for bookRooms method")
+    class BookRoomsTests {
+
+        /**
+         * Verifies that bulk booking fails when the collection of requests is null.
+         */
+        @DisplayName("Book rooms: Null requests should throw IllegalArgumentException")
+        @Test
+        void bookRooms_throwsException_ifRequestsAreNull() {
+
+            assertThatThrownBy(() -> bookingSystem.bookRooms(null))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Bokningsförfrågningar kan inte vara null");
+        }
+
+        /**
+         * Verifies that requests are checked against each other and each touched room is saved only once.
+         */
+        @DisplayName("Book rooms: Should book each request once and save each room once")
+        @Test
+        void bookRooms_savesEachRoomOnce_andRejectsConflictsWithinBatch() throws NotificationException {
+            Room firstRoom = new Room(ROOM_ID, "Konferensrum");
+            Room secondRoom = new Room("second_room", "Grupprum");
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(firstRoom));
+            when(roomRepository.findById("second_room")).thenReturn(Optional.of(secondRoom));
+
+            List<BookingResult> results = bookingSystem.bookRooms(List.of(
+                    new BookingRequest(ROOM_ID, START_TIME, END_TIME),
+                    new BookingRequest("second_room", START_TIME, END_TIME),
+                    new BookingRequest(ROOM_ID, END_TIME.minusHours(1), END_TIME.plusHours(1)),
+                    new BookingRequest(ROOM_ID, END_TIME.plusHours(1), END_TIME.plusHours(2))));
+
+            assertThat(results).extracting(BookingResult::status).containsExactly(
+                    BookingResult.Status.BOOKED,
+                    BookingResult.Status.BOOKED,
+                    BookingResult.Status.UNAVAILABLE,
+                    BookingResult.Status.BOOKED);
+            assertThat(firstRoom.getBookings()).hasSize(2);
+            assertThat(secondRoom.getBookings()).hasSize(1);
+            verify(roomRepository, times(1)).saveChanges(firstRoom);
+            verify(roomRepository, times(1)).saveChanges(secondRoom);
+            verify(notificationService, times(3)).sendBookingConfirmation(any(Booking.class));
+        }
+
+        /**
+         * Verifies that invalid requests and unknown rooms are reported per request without failing the batch.
+         */
+        @DisplayName("Book rooms: Should report invalid requests and unknown rooms per request")
+        @Test
+        void bookRooms_reportsInvalidRequestsAndUnknownRooms() {
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.empty());
+
+            List<BookingResult> results = bookingSystem.bookRooms(List.of(
+                    new BookingRequest(null, START_TIME, END_TIME),
+                    new BookingRequest(ROOM_ID, CURRENT_TIME.minusHours(1), END_TIME),
+                    new BookingRequest(ROOM_ID, END_TIME, START_TIME),
+                    new BookingRequest(ROOM_ID, START_TIME, END_TIME)));
+
+            assertThat(results).extracting(BookingResult::status).containsExactly(
+                    BookingResult.Status.INVALID,
+                    BookingResult.Status.INVALID,
+                    BookingResult.Status.INVALID,
+                    BookingResult.Status.ROOM_NOT_FOUND);
+            verify(roomRepository, never()).saveChanges(any());
+        }
     }
 
     @Nested
@@ -231,6 +361,163 @@ class BookingSystemTest {
             assertThat(result).containsExactly(availableRoom);
         }
 
+        /**
+         * Verifies that bookings which only touch a partially covered time slot are checked exactly,
+         * so a room booked right before the requested period is still returned.
+         */
+        @DisplayName("Get available rooms: Should recheck rooms with bookings in partially covered slots")
+        @Test
+        void getAvailableRooms_rechecksRoomsInPartiallyCoveredSlots() {
+            LocalDateTime start = START_TIME.plusMinutes(10);
+            Room bookedBefore = new Room("before", "Bokat innan");
+            bookedBefore.addBooking(new Booking("before_booking", "before", START_TIME, start.minusMinutes(1)));
+            Room bookedAtStart = new Room("at_start", "Bokat vid start");
+            bookedAtStart.addBooking(new Booking("start_booking", "at_start", START_TIME, start));
+
+            when(roomRepository.findAll()).thenReturn(List.of(bookedBefore, bookedAtStart));
+
+            List<Room> result = bookingSystem.getAvailableRooms(start, END_TIME);
+
+            assertThat(result).containsExactly(bookedBefore);
+        }
+
+        /**
+         * Verifies that bookings and cancellations made through the system are reflected by later queries.
+         */
+        @DisplayName("Get available rooms: Should reflect bookings and cancellations made through the system")
+        @Test
+        void getAvailableRooms_reflectsBookingsAndCancellations() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findAll()).thenReturn(List.of(realRoom));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            assertThat(bookingSystem.getAvailableRooms(START_TIME, END_TIME)).containsExactly(realRoom);
+            bookingSystem.bookRoom(ROOM_ID, START_TIME, END_TIME);
+            assertThat(bookingSystem.getAvailableRooms(START_TIME, END_TIME)).isEmpty();
+            bookingSystem.cancelBooking(realRoom.getBookings().getFirst().getId());
+            assertThat(bookingSystem.getAvailableRooms(START_TIME, END_TIME)).containsExactly(realRoom);
+        }
+
+        /**
+         * Verifies that the streaming variant stops reading rooms once the caller has enough results.
+         */
+        @DisplayName("Stream available rooms: Should only read as many rooms as the caller consumes")
+        @Test
+        void streamAvailableRooms_readsRoomsLazily() {
+            Room first = new Room("first", "Första rummet");
+            Room second = new Room("second", "Andra rummet");
+            Room third = new Room("third", "Tredje rummet");
+            List<Room> read = new ArrayList<>();
+
+            when(roomRepository.streamAll()).thenReturn(Stream.of(first, second, third).peek(read::add));
+
+            List<Room> result = bookingSystem.streamAvailableRooms(START_TIME, END_TIME).limit(1).toList();
+
+            assertThat(result).containsExactly(first);
+            assertThat(read).containsExactly(first);
+            verify(roomRepository, never()).findAll();
+        }
+
+        /**
+         * Verifies that paging skips available rooms on earlier pages and leaves out booked rooms.
+         */
+        @DisplayName("Get available rooms: Should return the requested page of available rooms")
+        @Test
+        void getAvailableRooms_withPage_returnsRequestedPage() {
+            Room first = new Room("first", "Första rummet");
+            Room booked = new Room("booked", "Bokat rum");
+            booked.addBooking(new Booking(BOOKING_ID, "booked", START_TIME, END_TIME));
+            Room second = new Room("second", "Andra rummet");
+            Room third = new Room("third", "Tredje rummet");
+
+            when(roomRepository.streamAll()).thenReturn(Stream.of(first, booked, second, third));
+
+            List<Room> result = bookingSystem.getAvailableRooms(START_TIME, END_TIME, 1, 1);
+
+            assertThat(result).containsExactly(second);
+        }
+
+        /**
+         * Verifies that an invalid page size is rejected.
+         */
+        @DisplayName("Get available rooms: Invalid page size should throw IllegalArgumentException")
+        @Test
+        void getAvailableRooms_invalidPageSize_throwsException() {
+            assertThatThrownBy(() -> bookingSystem.getAvailableRooms(START_TIME, END_TIME, 0, 0))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Ogiltig sida eller sidstorlek");
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Tests for findNextAvailableSlot method")
+    class FindNextAvailableSlotTests {
+
+        /**
+         * Verifies that the search for a single room starts at the current time when asked to search from the past.
+         */
+        @DisplayName("Find next slot: Should not return a slot in the past")
+        @Test
+        void findNextAvailableSlot_startsFromCurrentTime() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addBooking(new Booking(BOOKING_ID, ROOM_ID, CURRENT_TIME, START_TIME));
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            Optional<LocalDateTime> slot = bookingSystem.findNextAvailableSlot(ROOM_ID, Duration.ofHours(1),
+                    CURRENT_TIME.minusDays(1));
+
+            assertThat(slot).contains(START_TIME.plusMinutes(1));
+        }
+
+        /**
+         * Verifies that searching a room that does not exist throws an IllegalArgumentException.
+         */
+        @DisplayName("Find next slot: Non-existent room should throw IllegalArgumentException")
+        @Test
+        void findNextAvailableSlot_roomDoesNotExist_throwsException() {
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> bookingSystem.findNextAvailableSlot(ROOM_ID, Duration.ofHours(1), START_TIME))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Rummet existerar inte");
+        }
+
+        /**
+         * Verifies that a negative duration is rejected.
+         */
+        @DisplayName("Find next slot: Negative duration should throw IllegalArgumentException")
+        @Test
+        void findNextAvailableSlot_negativeDuration_throwsException() {
+            assertThatThrownBy(() -> bookingSystem.findNextAvailableSlot(ROOM_ID, Duration.ofHours(-1), START_TIME))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Längden kan inte vara negativ");
+        }
+
+        /**
+         * Verifies that the search across rooms returns the room with the earliest free slot.
+         */
+        @DisplayName("Find next slot: Should return the earliest slot across rooms")
+        @Test
+        void findNextAvailableSlot_acrossRooms_returnsEarliestSlot() {
+            Room busyRoom = new Room("busy", "Upptaget rum");
+            busyRoom.addBooking(new Booking("b1", "busy", START_TIME, END_TIME.plusHours(5)));
+            Room lessBusyRoom = new Room("less_busy", "Mindre upptaget rum");
+            lessBusyRoom.addBooking(new Booking("b2", "less_busy", START_TIME, END_TIME));
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById("busy")).thenReturn(Optional.of(busyRoom));
+            when(roomRepository.findById("less_busy")).thenReturn(Optional.of(lessBusyRoom));
+            when(roomRepository.findById("missing")).thenReturn(Optional.empty());
+
+            Optional<AvailableSlot> slot = bookingSystem.findNextAvailableSlot(List.of("busy", "less_busy", "missing"),
+                    Duration.ofHours(1), START_TIME);
+
+            assertThat(slot).contains(new AvailableSlot("less_busy", END_TIME.plusMinutes(1), END_TIME.plusMinutes(61)));
+        }
     }
 
     @Nested
@@ -258,7 +545,6 @@ class BookingSystemTest {
         void cancelBooking_returnsFalse_ifNoRoomWithBooking() {
 
             when(roomRepository.findAll()).thenReturn(List.of(room));
-            when(room.hasBooking(BOOKING_ID)).thenReturn(false);
 
             boolean result = bookingSystem.cancelBooking(BOOKING_ID);
 
@@ -277,6 +563,8 @@ class BookingSystemTest {
 
             Booking booking = new Booking(BOOKING_ID, ROOM_ID, CURRENT_TIME.minusHours(1), END_TIME);
             when(roomRepository.findAll()).thenReturn(List.of(room));
+            when(room.getBookings()).thenReturn(List.of(booking));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
             when(room.hasBooking(BOOKING_ID)).thenReturn(true);
             when(room.getBooking(BOOKING_ID)).thenReturn(booking);
 
@@ -295,6 +583,8 @@ class BookingSystemTest {
             Booking booking = new Booking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME);
             when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
             when(roomRepository.findAll()).thenReturn(List.of(room));
+            when(room.getBookings()).thenReturn(List.of(booking));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
             when(room.hasBooking(BOOKING_ID)).thenReturn(true);
             when(room.getBooking(BOOKING_ID)).thenReturn(booking);
 
@@ -302,7 +592,7 @@ class BookingSystemTest {
 
             assertThat(result).isTrue();
             verify(room).removeBooking(BOOKING_ID);
-            verify(roomRepository).save(room);
+            verify(roomRepository).saveChanges(room);
             verify(notificationService).sendCancellationConfirmation(booking);
 
         }
@@ -314,6 +604,8 @@ class BookingSystemTest {
 
             when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
             when(roomRepository.findAll()).thenReturn(List.of(room));
+            when(room.getBookings()).thenReturn(List.of(booking));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
             when(room.hasBooking(BOOKING_ID)).thenReturn(true);
             when(room.getBooking(BOOKING_ID)).thenReturn(booking);
             doThrow(new NotificationException("Notification failed"))
@@ -323,8 +615,305 @@ class BookingSystemTest {
 
             assertThat(result).isTrue();
             verify(room).removeBooking(BOOKING_ID);
-            verify(roomRepository).save(room);
+            verify(roomRepository).saveChanges(room);
+        }
+
+        /**
+         * Verifies that a booking made through the system is cancelled through the booking index,
+         * without scanning the rooms in the repository.
+         */
+        @Test
+        @DisplayName("Cancel booking: Should find booking made through the system without scanning rooms")
+        void cancelBooking_usesBookingIndex_forBookingsMadeThroughSystem() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+            when(roomRepository.findAll()).thenReturn(List.of());
+            bookingSystem.bookRoom(ROOM_ID, START_TIME, END_TIME);
+            String bookingId = realRoom.getBookings().getFirst().getId();
+
+            boolean result = bookingSystem.cancelBooking(bookingId);
+
+            assertThat(result).isTrue();
+            assertThat(realRoom.hasBooking(bookingId)).isFalse();
+            verify(roomRepository, times(1)).findAll();
+            assertThat(bookingSystem.cancelBooking(bookingId)).isFalse();
+        }
+
+        /**
+         * Verifies that a miss after the index was loaded is answered by the index alone, without scanning the rooms.
+         */
+        @Test
+        @DisplayName("Cancel booking: Should not scan the rooms on a miss once the index is loaded")
+        void cancelBooking_doesNotScanRooms_onMissAfterIndexIsLoaded() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            when(roomRepository.findAll()).thenReturn(List.of(realRoom));
+            assertThat(bookingSystem.cancelBooking("missing")).isFalse();
+
+            realRoom.addBooking(new Booking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME));
+
+            assertThat(bookingSystem.cancelBooking(BOOKING_ID)).isFalse();
+            assertThat(realRoom.hasBooking(BOOKING_ID)).isTrue();
+            verify(roomRepository, times(1)).findAll();
+            verify(roomRepository, never()).streamAll();
+        }
+
+        /**
+         * Verifies that cancelBooking returns false if the indexed booking no longer exists in its room.
+         */
+        @Test
+        @DisplayName("Cancel booking: Should return false if indexed booking was removed from its room")
+        void cancelBooking_returnsFalse_ifIndexedBookingIsNoLongerInRoom() {
+            Booking booking = new Booking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME);
+            when(roomRepository.findAll()).thenReturn(List.of(room));
+            when(room.getBookings()).thenReturn(List.of(booking));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
+            when(room.hasBooking(BOOKING_ID)).thenReturn(false);
+
+            boolean result = bookingSystem.cancelBooking(BOOKING_ID);
+
+            assertThat(result).isFalse();
+            verify(room, never()).removeBooking(any());
         }
     }
-}
 
+    @Nested
+    @DisplayName("Tests for archiveFinishedBookings method")
+    class ArchiveFinishedBookingsTests {
+
+        /**
+         * Verifies that finished bookings are moved to the archive while current bookings stay in the room.
+         */
+        @DisplayName("Archive: Should move finished bookings to the archive")
+        @Test
+        void archiveFinishedBookings_movesFinishedBookingsToArchive() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            Booking finished = new Booking("finished", ROOM_ID, CURRENT_TIME.minusHours(3), CURRENT_TIME.minusHours(1));
+            Booking upcoming = new Booking("upcoming", ROOM_ID, START_TIME, END_TIME);
+            realRoom.addBooking(finished);
+            realRoom.addBooking(upcoming);
+            InMemoryBookingArchive archive = new InMemoryBookingArchive();
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.streamAll()).thenReturn(Stream.of(realRoom));
+
+            int archived = bookingSystem.archiveFinishedBookings(archive);
+
+            assertThat(archived).isEqualTo(1);
+            assertThat(realRoom.getBookings()).containsExactly(upcoming);
+            assertThat(archive.findById("finished")).contains(finished);
+            assertThat(archive.findByRoom(ROOM_ID)).containsExactly(finished);
+            verify(roomRepository).saveChanges(realRoom);
+        }
+
+        /**
+         * Verifies that rooms without finished bookings are not saved.
+         */
+        @DisplayName("Archive: Should not save rooms without finished bookings")
+        @Test
+        void archiveFinishedBookings_doesNotSaveUnchangedRooms() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addBooking(new Booking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME));
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.streamAll()).thenReturn(Stream.of(realRoom));
+
+            assertThat(bookingSystem.archiveFinishedBookings(new InMemoryBookingArchive())).isZero();
+            verify(roomRepository, never()).saveChanges(any());
+        }
+
+        /**
+         * Verifies that finished bookings stay in the room when the archive fails.
+         */
+        @DisplayName("Archive: Should keep finished bookings when archiving fails")
+        @Test
+        void archiveFinishedBookings_keepsBookings_whenArchiveFails() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            Booking finished = new Booking("finished", ROOM_ID, CURRENT_TIME.minusHours(3), CURRENT_TIME.minusHours(1));
+            realRoom.addBooking(finished);
+            BookingArchive archive = mock(BookingArchive.class);
+            doThrow(new IllegalStateException("Arkivet är inte tillgängligt")).when(archive).archive(any());
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.streamAll()).thenReturn(Stream.of(realRoom));
+
+            assertThatThrownBy(() -> bookingSystem.archiveFinishedBookings(archive))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(realRoom.getBookings()).containsExactly(finished);
+            verify(roomRepository, never()).saveChanges(any());
+        }
+
+        /**
+         * Verifies that an archived booking can no longer be cancelled.
+         */
+        @DisplayName("Archive: Archived booking should not be found when cancelling")
+        @Test
+        void archiveFinishedBookings_archivedBookingCannotBeCancelled() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addBooking(new Booking(BOOKING_ID, ROOM_ID, CURRENT_TIME.minusHours(3), CURRENT_TIME.minusHours(1)));
+
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findAll()).thenReturn(List.of(realRoom));
+            when(roomRepository.streamAll()).thenAnswer(invocation -> Stream.of(realRoom));
+
+            bookingSystem.archiveFinishedBookings(new InMemoryBookingArchive());
+
+            assertThat(bookingSystem.cancelBooking(BOOKING_ID)).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests for recurring bookings")
+    class RecurringBookingTests {
+
+        private static final LocalDate UNTIL = START_TIME.toLocalDate().plusWeeks(4);
+
+        /**
+         * Verifies that a recurring booking is stored as one rule, saved and confirmed.
+         */
+        @DisplayName("Book recurring room: Should store the series as one rule and confirm it")
+        @Test
+        void bookRecurringRoom_storesSeriesAsRule() throws NotificationException {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            boolean result = bookingSystem.bookRecurringRoom(ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.WEEKLY, UNTIL, Set.of());
+
+            assertThat(result).isTrue();
+            assertThat(realRoom.getRecurringBookings()).hasSize(1);
+            assertThat(realRoom.getBookings()).isEmpty();
+            verify(roomRepository).saveChanges(realRoom);
+            verify(notificationService).sendBookingConfirmation(any(Booking.class));
+        }
+
+        /**
+         * Verifies that a single booking on a later occurrence of a series is rejected.
+         */
+        @DisplayName("Book room: Should reject a booking that hits a recurring occurrence")
+        @Test
+        void bookRoom_rejectsBookingOnRecurringOccurrence() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addRecurringBooking(new RecurringBooking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.WEEKLY, UNTIL, Set.of()));
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            boolean result = bookingSystem.bookRoom(ROOM_ID, START_TIME.plusWeeks(2), END_TIME.plusWeeks(2));
+
+            assertThat(result).isFalse();
+            verify(roomRepository, never()).saveChanges(any());
+        }
+
+        /**
+         * Verifies that a series whose occurrences would collide with an existing booking is rejected.
+         */
+        @DisplayName("Book recurring room: Should reject a series that hits an existing booking")
+        @Test
+        void bookRecurringRoom_rejectsSeriesHittingBooking() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addBooking(new Booking(BOOKING_ID, ROOM_ID, START_TIME.plusWeeks(3), END_TIME.plusWeeks(3)));
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            boolean result = bookingSystem.bookRecurringRoom(ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.WEEKLY, UNTIL, Set.of());
+
+            assertThat(result).isFalse();
+            assertThat(realRoom.hasRecurringBookings()).isFalse();
+        }
+
+        /**
+         * Verifies that an end date before the first occurrence is rejected.
+         */
+        @DisplayName("Book recurring room: End date before start date should throw IllegalArgumentException")
+        @Test
+        void bookRecurringRoom_untilBeforeStart_throwsException() {
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+
+            assertThatThrownBy(() -> bookingSystem.bookRecurringRoom(ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.DAILY, START_TIME.toLocalDate().minusDays(1), Set.of()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Slutdatum kan inte vara före startdatum");
+        }
+
+        /**
+         * Verifies that rooms with recurring bookings are checked exactly by getAvailableRooms.
+         */
+        @DisplayName("Get available rooms: Should leave out rooms with a recurring occurrence in the period")
+        @Test
+        void getAvailableRooms_excludesRoomsWithRecurringOccurrence() {
+            Room recurringRoom = new Room(ROOM_ID, "Konferensrum");
+            recurringRoom.addRecurringBooking(new RecurringBooking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.DAILY, UNTIL, Set.of()));
+            Room freeRoom = new Room("free", "Ledigt rum");
+            when(roomRepository.findAll()).thenReturn(List.of(recurringRoom, freeRoom));
+
+            List<Room> result = bookingSystem.getAvailableRooms(START_TIME.plusDays(2), END_TIME.plusDays(2));
+
+            assertThat(result).containsExactly(freeRoom);
+        }
+
+        /**
+         * Verifies that cancelling a series removes the rule and confirms the cancellation.
+         */
+        @DisplayName("Cancel recurring booking: Should remove the series")
+        @Test
+        void cancelRecurringBooking_removesSeries() throws NotificationException {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addRecurringBooking(new RecurringBooking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.WEEKLY, UNTIL, Set.of()));
+            when(timeProvider.getCurrentTime()).thenReturn(CURRENT_TIME);
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            assertThat(bookingSystem.cancelRecurringBooking(ROOM_ID, BOOKING_ID)).isTrue();
+            assertThat(bookingSystem.cancelRecurringBooking(ROOM_ID, BOOKING_ID)).isFalse();
+
+            assertThat(realRoom.hasRecurringBookings()).isFalse();
+            verify(roomRepository).saveChanges(realRoom);
+            verify(notificationService).sendCancellationConfirmation(any(Booking.class));
+        }
+
+        /**
+         * Verifies that cancelling a started series keeps the occurrences that have started and drops the rest.
+         */
+        @DisplayName("Cancel recurring booking: Should keep occurrences that have started")
+        @Test
+        void cancelRecurringBooking_keepsStartedOccurrences() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addRecurringBooking(new RecurringBooking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.WEEKLY, UNTIL, Set.of()));
+            when(timeProvider.getCurrentTime()).thenReturn(START_TIME.plusWeeks(1).plusHours(1));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            assertThat(bookingSystem.cancelRecurringBooking(ROOM_ID, BOOKING_ID)).isTrue();
+
+            assertThat(realRoom.getRecurringBookings()).singleElement()
+                    .extracting(RecurringBooking::getUntil)
+                    .isEqualTo(START_TIME.toLocalDate().plusWeeks(1));
+            assertThat(realRoom.isAvailable(START_TIME.plusWeeks(1), END_TIME.plusWeeks(1))).isFalse();
+            assertThat(realRoom.isAvailable(START_TIME.plusWeeks(2), END_TIME.plusWeeks(2))).isTrue();
+            verify(roomRepository).saveChanges(realRoom);
+        }
+
+        /**
+         * Verifies that a series whose every occurrence has started cannot be cancelled.
+         */
+        @DisplayName("Cancel recurring booking: Passed series should throw IllegalStateException")
+        @Test
+        void cancelRecurringBooking_throwsException_whenSeriesHasPassed() {
+            Room realRoom = new Room(ROOM_ID, "Konferensrum");
+            realRoom.addRecurringBooking(new RecurringBooking(BOOKING_ID, ROOM_ID, START_TIME, END_TIME,
+                    RecurringBooking.Recurrence.WEEKLY, UNTIL, Set.of()));
+            when(timeProvider.getCurrentTime()).thenReturn(START_TIME.plusWeeks(5));
+            when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(realRoom));
+
+            assertThatThrownBy(() -> bookingSystem.cancelRecurringBooking(ROOM_ID, BOOKING_ID))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Serien har inga tillfällen kvar att avboka");
+            assertThat(realRoom.getRecurringBookings()).hasSize(1);
+            verify(roomRepository, never()).saveChanges(any());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link CachedTimeProvider} class.
+ * Tests that the cached time follows the underlying clock.
+ */
+@DisplayName("Cached Time Provider Tests")
+class CachedTimeProviderTest {
+
+    private static final Instant START = Instant.parse("2026-01-28T12:00:00Z");
+
+    /**
+     * Clock whose time only moves when the test advances it.
+     */
+    private static final class ManualClock extends Clock {
+        private final AtomicLong millis = new AtomicLong(START.toEpochMilli());
+
+        void advanceMillis(long amount) {
+            millis.addAndGet(amount);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+
+    /**
+     * Verifies that the time is available immediately after construction.
+     */
+    @Test
+    @DisplayName("Get current time: should be set before the first tick")
+    void getCurrentTime_isSetImmediately() {
+        ManualClock clock = new ManualClock();
+
+        try (CachedTimeProvider timeProvider = new CachedTimeProvider(clock, 1, TimeUnit.HOURS)) {
+            assertThat(timeProvider.getCurrentTime()).isEqualTo(LocalDateTime.ofInstant(START, ZoneOffset.UTC));
+            assertThat(timeProvider.getEpochMillis()).isEqualTo(START.toEpochMilli());
+        }
+    }
+
+    /**
+     * Verifies that the ticker picks up changes of the underlying clock.
+     */
+    @Test
+    @DisplayName("Tick: should follow the underlying clock")
+    void tick_followsUnderlyingClock() {
+        ManualClock clock = new ManualClock();
+
+        try (CachedTimeProvider timeProvider = new CachedTimeProvider(clock, 1, TimeUnit.MILLISECONDS)) {
+            clock.advanceMillis(5_000);
+
+            long expected = START.toEpochMilli() + 5_000;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (timeProvider.getEpochMillis() != expected && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+
+            assertThat(timeProvider.getEpochMillis()).isEqualTo(expected);
+            assertThat(timeProvider.getCurrentTime())
+                    .isEqualTo(LocalDateTime.ofInstant(START, ZoneOffset.UTC).plusSeconds(5));
+        }
+    }
+
+    /**
+     * Verifies that a non-positive resolution is rejected.
+     */
+    @Test
+    @DisplayName("Constructor: non-positive resolution should throw IllegalArgumentException")
+    void constructor_throwsException_whenResolutionIsNotPositive() {
+        assertThatThrownBy(() -> new CachedTimeProvider(0, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Resolution must be positive");
+    }
+}
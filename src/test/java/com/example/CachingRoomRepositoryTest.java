@@ -0,0 +1,194 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link CachingRoomRepository} class.
+ * Tests cache hits and misses, LRU eviction, write-behind coalescing of saves and failed writes.
+ */
+@DisplayName("Caching Room Repository Tests")
+@ExtendWith(MockitoExtension.class)
+class CachingRoomRepositoryTest {
+
+    private static final Room FIRST_ROOM = new Room("first", "Första rummet");
+    private static final Room SECOND_ROOM = new Room("second", "Andra rummet");
+    private static final Room THIRD_ROOM = new Room("third", "Tredje rummet");
+
+    @Mock
+    RoomRepository delegate;
+
+    /**
+     * Verifies that a room is only loaded from the underlying repository on the first lookup.
+     */
+    @Test
+    @DisplayName("Find by id: should serve repeated lookups from the cache")
+    void findById_servesRepeatedLookupsFromCache() {
+        when(delegate.findById("first")).thenReturn(Optional.of(FIRST_ROOM));
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10);
+
+        assertThat(repository.findById("first")).contains(FIRST_ROOM);
+        assertThat(repository.findById("first")).contains(FIRST_ROOM);
+
+        verify(delegate, times(1)).findById("first");
+        assertThat(repository.getMissCount()).isEqualTo(1);
+        assertThat(repository.getHitCount()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that the least recently used room is evicted when the cache is full.
+     */
+    @Test
+    @DisplayName("Eviction: should evict the least recently used room")
+    void save_evictsLeastRecentlyUsedRoom_whenCacheIsFull() {
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 2);
+        repository.save(FIRST_ROOM);
+        repository.save(SECOND_ROOM);
+        repository.findById("first");
+
+        repository.save(THIRD_ROOM);
+        repository.findById("first");
+
+        assertThat(repository.size()).isEqualTo(2);
+        assertThat(repository.getEvictionCount()).isEqualTo(1);
+        verify(delegate, never()).findById("first");
+    }
+
+    /**
+     * Verifies that repeated saves of the same room are coalesced into one write with write-behind.
+     */
+    @Test
+    @DisplayName("Write-behind: should coalesce repeated saves into one write")
+    void save_coalescesRepeatedSaves_withWriteBehind() {
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10, 1, TimeUnit.HOURS);
+
+        for (int i = 0; i < 5; i++) {
+            repository.save(FIRST_ROOM);
+        }
+        verify(delegate, never()).save(any());
+
+        repository.close();
+
+        verify(delegate, times(1)).save(FIRST_ROOM);
+        assertThat(repository.getWriteCount()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that rooms saved only as deltas are flushed as deltas, and as whole rooms once saved whole.
+     */
+    @Test
+    @DisplayName("Write-behind: should flush delta saves as deltas")
+    void saveChanges_flushesDeltas_withWriteBehind() {
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10, 1, TimeUnit.HOURS);
+
+        repository.saveChanges(FIRST_ROOM);
+        repository.saveChanges(SECOND_ROOM);
+        repository.save(SECOND_ROOM);
+        repository.close();
+
+        verify(delegate).saveChanges(FIRST_ROOM);
+        verify(delegate).save(SECOND_ROOM);
+        verify(delegate, never()).save(FIRST_ROOM);
+        verify(delegate, never()).saveChanges(SECOND_ROOM);
+    }
+
+    /**
+     * Verifies that findAll includes rooms that are saved in the cache but not yet written.
+     */
+    @Test
+    @DisplayName("Find all: should include rooms not yet written to the underlying repository")
+    void findAll_includesDirtyRooms() {
+        when(delegate.findAll()).thenReturn(List.of(FIRST_ROOM));
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10, 1, TimeUnit.HOURS);
+        repository.save(SECOND_ROOM);
+
+        assertThat(repository.findAll()).containsExactlyInAnyOrder(FIRST_ROOM, SECOND_ROOM);
+        repository.close();
+    }
+
+    /**
+     * Verifies that streaming the rooms also includes dirty rooms, after the rooms of the underlying repository.
+     */
+    @Test
+    @DisplayName("Stream all: should include rooms not yet written to the underlying repository")
+    void streamAll_includesDirtyRooms() {
+        when(delegate.streamAll()).thenReturn(Stream.of(FIRST_ROOM, SECOND_ROOM));
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10, 1, TimeUnit.HOURS);
+        repository.save(SECOND_ROOM);
+        repository.save(THIRD_ROOM);
+
+        assertThat(repository.streamAll()).containsExactly(FIRST_ROOM, SECOND_ROOM, THIRD_ROOM);
+        repository.close();
+    }
+
+    /**
+     * Verifies that a room whose write fails is written whole at the next flush, and that the other rooms are still written.
+     */
+    @Test
+    @DisplayName("Flush: should keep a room dirty when its write fails")
+    void flush_keepsRoomDirty_whenWriteFails() {
+        doThrow(new IllegalStateException("Disk full")).when(delegate).saveChanges(FIRST_ROOM);
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10, 1, TimeUnit.HOURS);
+        repository.saveChanges(FIRST_ROOM);
+        repository.save(SECOND_ROOM);
+
+        assertThatThrownBy(repository::flush).isInstanceOf(IllegalStateException.class).hasMessage("Disk full");
+        verify(delegate).save(SECOND_ROOM);
+
+        repository.close();
+
+        verify(delegate).save(FIRST_ROOM);
+        assertThat(repository.getFailedWriteCount()).isEqualTo(1);
+        assertThat(repository.getWriteCount()).isEqualTo(2);
+    }
+
+    /**
+     * Verifies that the scheduled flush keeps running after a failed write and retries it.
+     */
+    @Test
+    @DisplayName("Write-behind: should keep flushing after a failed write")
+    void writeBehind_keepsFlushing_afterFailedWrite() {
+        doThrow(new IllegalStateException("Disk full")).doNothing().when(delegate).save(FIRST_ROOM);
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 10, 10, TimeUnit.MILLISECONDS);
+
+        repository.save(FIRST_ROOM);
+
+        verify(delegate, timeout(5000).times(2)).save(FIRST_ROOM);
+        repository.close();
+        assertThat(repository.getFailedWriteCount()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that a room whose write fails after it was evicted does not push the cache past its
+     * maximum size, and that it is still served and retried.
+     */
+    @Test
+    @DisplayName("Write-behind: failed write of an evicted room should not grow the cache")
+    void save_keepsCacheWithinMaximumSize_whenEvictedRoomFailsToWrite() {
+        doThrow(new IllegalStateException("Disk full")).doNothing().when(delegate).save(FIRST_ROOM);
+        CachingRoomRepository repository = new CachingRoomRepository(delegate, 1, 1, TimeUnit.HOURS);
+        repository.save(FIRST_ROOM);
+
+        assertThatThrownBy(() -> repository.save(SECOND_ROOM)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(repository.findById("first")).contains(FIRST_ROOM);
+        assertThat(repository.findAll()).containsExactlyInAnyOrder(FIRST_ROOM, SECOND_ROOM);
+        repository.close();
+        verify(delegate, times(2)).save(FIRST_ROOM);
+        verify(delegate).save(SECOND_ROOM);
+        assertThat(repository.size()).isEqualTo(1);
+    }
+}
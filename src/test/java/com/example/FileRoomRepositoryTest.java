@@ -0,0 +1,322 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link FileRoomRepository} class.
+ * Tests that rooms and bookings survive a restart through the journal and the snapshot.
+ */
+@DisplayName("File Room Repository Tests")
+class FileRoomRepositoryTest {
+
+    private static final String ROOM_ID = "room_id";
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2026, 3, 2, 9, 0);
+    private static final LocalDateTime END_TIME = START_TIME.plusHours(1);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Verifies that bookings added and removed before a restart are restored from the journal.
+     */
+    @Test
+    @DisplayName("Recovery: should restore rooms and bookings from the journal")
+    void reopen_restoresRoomsAndBookings_fromJournal() throws IOException {
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = new Room(ROOM_ID, "Konferensrum");
+            room.addBooking(new Booking("first", ROOM_ID, START_TIME, END_TIME));
+            room.addBooking(new Booking("second", ROOM_ID, END_TIME.plusHours(1), END_TIME.plusHours(2)));
+            repository.save(room);
+            room.removeBooking("first");
+            repository.save(room);
+        }
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = repository.findById(ROOM_ID).orElseThrow();
+            assertThat(room.getName()).isEqualTo("Konferensrum");
+            assertThat(room.getBookings()).extracting(Booking::getId).containsExactly("second");
+            assertThat(room.getBooking("second").getStartTime()).isEqualTo(END_TIME.plusHours(1));
+        }
+    }
+
+    /**
+     * Verifies that a snapshot replaces the journal and is used on the next start.
+     */
+    @Test
+    @DisplayName("Snapshot: should empty the journal and restore state from the snapshot")
+    void snapshot_emptiesJournal_andRestoresState() throws IOException {
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = new Room(ROOM_ID, "Konferensrum");
+            room.addBooking(new Booking("first", ROOM_ID, START_TIME, END_TIME));
+            repository.save(room);
+            repository.snapshot();
+        }
+
+        assertThat(Files.size(directory.resolve(FileRoomRepository.JOURNAL_FILE))).isZero();
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            assertThat(repository.findById(ROOM_ID).orElseThrow().hasBooking("first")).isTrue();
+        }
+    }
+
+    /**
+     * Verifies that recurring series survive a restart, both through the journal and through a snapshot.
+     */
+    @Test
+    @DisplayName("Recovery: should restore recurring bookings from the journal and the snapshot")
+    void reopen_restoresRecurringBookings() throws IOException {
+        RecurringBooking weekly = new RecurringBooking("weekly", ROOM_ID, START_TIME, END_TIME,
+                RecurringBooking.Recurrence.WEEKLY, START_TIME.toLocalDate().plusWeeks(8),
+                Set.of(START_TIME.toLocalDate().plusWeeks(2)));
+        RecurringBooking daily = new RecurringBooking("daily", ROOM_ID, END_TIME, END_TIME.plusHours(1),
+                RecurringBooking.Recurrence.DAILY, START_TIME.toLocalDate().plusDays(3), Set.of());
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = new Room(ROOM_ID, "Konferensrum");
+            room.addRecurringBooking(weekly);
+            repository.save(room);
+            repository.snapshot();
+            room.addRecurringBooking(daily);
+            room.removeRecurringBooking("weekly");
+            repository.save(room);
+            room.addRecurringBooking(weekly);
+            repository.save(room);
+        }
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = repository.findById(ROOM_ID).orElseThrow();
+            assertThat(room.getRecurringBookings()).extracting(RecurringBooking::getId)
+                    .containsExactlyInAnyOrder("weekly", "daily");
+            assertThat(room.isAvailable(START_TIME.plusWeeks(2), END_TIME.plusWeeks(2))).isTrue();
+            assertThat(room.isAvailable(START_TIME.plusWeeks(3), END_TIME.plusWeeks(3))).isFalse();
+        }
+    }
+
+    /**
+     * Verifies that a delta save of a room loaded from disk journals only the change, including a replaced booking.
+     */
+    @Test
+    @DisplayName("Save changes: should journal only what changed since the last save")
+    void saveChanges_journalsOnlyChanges_ofLoadedRoom() throws IOException {
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = new Room(ROOM_ID, "Konferensrum");
+            for (int i = 0; i < 100; i++) {
+                room.addBooking(new Booking("booking_" + i, ROOM_ID, START_TIME.plusDays(i), END_TIME.plusDays(i)));
+            }
+            repository.save(room);
+        }
+        Path journal = directory.resolve(FileRoomRepository.JOURNAL_FILE);
+        long sizeBefore = Files.size(journal);
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = repository.findById(ROOM_ID).orElseThrow();
+            room.removeBooking("booking_0");
+            room.removeBooking("booking_1");
+            room.addBooking(new Booking("booking_1", ROOM_ID, START_TIME.minusDays(1), END_TIME.minusDays(1)));
+            repository.saveChanges(room);
+        }
+        assertThat(Files.size(journal) - sizeBefore).isLessThan(sizeBefore / 10);
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = repository.findById(ROOM_ID).orElseThrow();
+            assertThat(room.getBookings()).hasSize(99);
+            assertThat(room.hasBooking("booking_0")).isFalse();
+            assertThat(room.getBooking("booking_1").getStartTime()).isEqualTo(START_TIME.minusDays(1));
+        }
+    }
+
+    /**
+     * Verifies that a record torn by a crash during a write is discarded on recovery.
+     */
+    @Test
+    @DisplayName("Recovery: should ignore a torn record at the end of the journal")
+    void reopen_ignoresTornRecord_atEndOfJournal() throws IOException {
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            Room room = new Room(ROOM_ID, "Konferensrum");
+            room.addBooking(new Booking("first", ROOM_ID, START_TIME, END_TIME));
+            repository.save(room);
+        }
+        Path journal = directory.resolve(FileRoomRepository.JOURNAL_FILE);
+        long validSize = Files.size(journal);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 64, 1, 2, 3}));
+        }
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            assertThat(repository.findById(ROOM_ID).orElseThrow().getBookings()).hasSize(1);
+        }
+        assertThat(Files.size(journal)).isEqualTo(validSize);
+    }
+
+    /**
+     * Verifies that a failed group write fails every save waiting for it, cuts the journal back to
+     * what was durable and refuses further writes.
+     */
+    @Test
+    @DisplayName("Group commit: should fail all waiting saves and truncate the journal when a write fails")
+    void save_failsAllWaitingSaves_andTruncatesJournal_whenWriteFails() throws Exception {
+        Path journalPath = directory.resolve(FileRoomRepository.JOURNAL_FILE);
+        FailingFileChannel journal = new FailingFileChannel(FileChannel.open(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        long durableSize;
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory, 10_000, journal);
+             ExecutorService savers = Executors.newVirtualThreadPerTaskExecutor()) {
+            repository.save(new Room(ROOM_ID, "Konferensrum"));
+            durableSize = Files.size(journalPath);
+            journal.failing = true;
+
+            Future<?> first = savers.submit(() -> repository.save(new Room("first", "Första rummet")));
+            assertThat(journal.writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> second = savers.submit(() -> repository.save(new Room("second", "Andra rummet")));
+            // Den andra tråden hinner köa sin post och vänta på gruppens skrivning
+            Thread.sleep(100);
+            journal.release.countDown();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(UncheckedIOException.class);
+            assertThat(Files.size(journalPath)).isEqualTo(durableSize);
+            assertThatThrownBy(() -> repository.save(new Room("third", "Tredje rummet")))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("reopen the repository");
+        }
+
+        try (FileRoomRepository repository = new FileRoomRepository(directory)) {
+            assertThat(repository.findAll()).extracting(Room::getId).containsExactly(ROOM_ID);
+        }
+    }
+
+    /**
+     * A journal channel that, once failing, writes part of a batch, waits to be released and then throws.
+     */
+    private static final class FailingFileChannel extends FileChannel {
+        private final FileChannel delegate;
+        private final CountDownLatch writeStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean failing;
+
+        FailingFileChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            if (!failing) {
+                return delegate.write(srcs, offset, length);
+            }
+            ByteBuffer first = srcs[offset];
+            delegate.write(first.slice(first.position(), first.remaining() / 2));
+            writeStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Disk full");
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link InMemoryBookingArchive} class.
+ * Tests lookups of archived bookings by room and by period.
+ */
+@DisplayName("In-Memory Booking Archive Tests")
+class InMemoryBookingArchiveTest {
+
+    private static final String ROOM_ID = "room_id";
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 2, 2, 0, 0);
+
+    private final InMemoryBookingArchive archive = new InMemoryBookingArchive();
+
+    /**
+     * Verifies that only bookings overlapping the period are returned, including a long booking that
+     * started well before it, in start time order.
+     */
+    @Test
+    @DisplayName("Find by room between: should return only bookings overlapping the period")
+    void findByRoomBetween_returnsOnlyOverlappingBookings() {
+        Booking longBooking = new Booking("long", ROOM_ID, MONDAY.minusDays(10), MONDAY.plusHours(1));
+        Booking before = new Booking("before", ROOM_ID, MONDAY.minusDays(2), MONDAY.minusDays(1));
+        Booking inside = new Booking("inside", ROOM_ID, MONDAY.plusHours(9), MONDAY.plusHours(10));
+        Booking after = new Booking("after", ROOM_ID, MONDAY.plusDays(2), MONDAY.plusDays(3));
+        Booking otherRoom = new Booking("other", "other_room", MONDAY.plusHours(9), MONDAY.plusHours(10));
+        archive.archive(List.of(inside, after, longBooking, before, otherRoom));
+
+        assertThat(archive.findByRoomBetween(ROOM_ID, MONDAY, MONDAY.plusDays(1)))
+                .containsExactly(longBooking, inside);
+        assertThat(archive.findByRoom(ROOM_ID)).containsExactly(longBooking, before, inside, after);
+    }
+}
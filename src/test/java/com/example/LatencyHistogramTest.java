@@ -0,0 +1,134 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link LatencyHistogram} class.
+ * Tests the bucket boundaries, the percentile rank and the promised precision.
+ */
+@DisplayName("Latency Histogram Tests")
+class LatencyHistogramTest {
+
+    @Nested
+    @DisplayName("Buckets")
+    class Buckets {
+
+        /**
+         * Verifies that values below 16 each get their own exact bucket.
+         *
+         * @param value the small value to test
+         */
+        @ParameterizedTest
+        @ValueSource(longs = {0, 1, 15})
+        @DisplayName("Small values should be kept exactly")
+        void smallValues_areKeptExactly(long value) {
+            assertThat(LatencyHistogram.bucketOf(value)).isEqualTo((int) value);
+            assertThat(LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value))).isEqualTo(value);
+        }
+
+        /**
+         * Verifies that 16 starts the first log-linear bucket and that its buckets are still one wide.
+         */
+        @Test
+        @DisplayName("16 should start the first log-linear bucket")
+        void sixteen_startsFirstLogLinearBucket() {
+            assertThat(LatencyHistogram.bucketOf(16)).isEqualTo(16);
+            assertThat(LatencyHistogram.upperBoundOf(16)).isEqualTo(16);
+            assertThat(LatencyHistogram.bucketOf(31)).isEqualTo(31);
+        }
+
+        /**
+         * Verifies that every power of two starts a new bucket, right after the bucket of the value before it.
+         */
+        @Test
+        @DisplayName("Each power of two should start a new bucket")
+        void powersOfTwo_startNewBuckets() {
+            for (int exponent = 4; exponent < 63; exponent++) {
+                long power = 1L << exponent;
+                int bucket = LatencyHistogram.bucketOf(power);
+
+                assertThat(bucket).isEqualTo(LatencyHistogram.bucketOf(power - 1) + 1);
+                assertThat(LatencyHistogram.upperBoundOf(bucket - 1)).isEqualTo(power - 1);
+            }
+        }
+
+        /**
+         * Verifies that the largest value lands in the last bucket, whose upper bound is the value itself.
+         */
+        @Test
+        @DisplayName("Long.MAX_VALUE should land in the last bucket")
+        void maxValue_landsInLastBucket() {
+            int bucket = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+
+            assertThat(bucket).isEqualTo(959);
+            assertThat(LatencyHistogram.upperBoundOf(bucket)).isEqualTo(Long.MAX_VALUE);
+        }
+
+        /**
+         * Verifies that a bucket's upper bound is never below the value and at most 1/16 (about 6%) above it.
+         */
+        @Test
+        @DisplayName("Upper bound should be within 1/16 of the recorded value")
+        void upperBound_isWithinOneSixteenthOfValue() {
+            for (int exponent = 4; exponent < 63; exponent++) {
+                long power = 1L << exponent;
+                for (long value : new long[]{power, power + 1, power + power / 3, power * 2 - 1}) {
+                    long upperBound = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+
+                    assertThat(upperBound).isGreaterThanOrEqualTo(value);
+                    assertThat(upperBound - value).isLessThanOrEqualTo(value / 16);
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Percentiles")
+    class Percentiles {
+
+        /**
+         * Verifies that a percentile is taken from the bucket holding the ceil(p * n)-th value.
+         */
+        @Test
+        @DisplayName("Should return the bucket of the value at the percentile's rank")
+        void getValueAtPercentile_returnsValueAtRank() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int value = 1; value <= 100; value++) {
+                histogram.record(value);
+            }
+
+            assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+            assertThat(histogram.getValueAtPercentile(10)).isEqualTo(10);
+            assertThat(histogram.getValueAtPercentile(50)).isEqualTo(51);
+            assertThat(histogram.getValueAtPercentile(99)).isEqualTo(99);
+            assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100);
+        }
+
+        /**
+         * Verifies that a percentile is capped at the largest recorded value.
+         */
+        @Test
+        @DisplayName("Should not report more than the largest recorded value")
+        void getValueAtPercentile_isCappedAtMax() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(1_000);
+
+            assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1_000);
+        }
+
+        /**
+         * Verifies that an empty histogram reports zero.
+         */
+        @Test
+        @DisplayName("Empty histogram should return zero")
+        void getValueAtPercentile_returnsZero_whenEmpty() {
+            assertThat(new LatencyHistogram().getValueAtPercentile(50)).isZero();
+        }
+    }
+}
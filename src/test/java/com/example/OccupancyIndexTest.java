@@ -0,0 +1,130 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link OccupancyIndex} class.
+ * Tests the cases where the bitmaps cannot answer and rooms are checked exactly instead.
+ */
+@DisplayName("Occupancy Index Tests")
+class OccupancyIndexTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2026, 2, 2, 9, 0);
+    private static final LocalDateTime END_TIME = START_TIME.plusHours(1);
+
+    private final OccupancyIndex index = new OccupancyIndex();
+
+    /**
+     * Verifies that a room without an id is never indexed and is checked exactly.
+     */
+    @Test
+    @DisplayName("Is available: room without id should be checked exactly")
+    void isAvailable_checksRoomWithoutIdExactly() {
+        Room room = new Room(null, "Namnlöst rum");
+        room.addBooking(new Booking("booking", null, START_TIME, END_TIME));
+
+        index.index(room);
+
+        assertThat(index.isIndexed(room)).isFalse();
+        assertThat(index.query(START_TIME, END_TIME).isAvailable(room, START_TIME, END_TIME)).isFalse();
+        assertThat(index.query(END_TIME.plusHours(1), END_TIME.plusHours(2))
+                .isAvailable(room, END_TIME.plusHours(1), END_TIME.plusHours(2))).isTrue();
+    }
+
+    /**
+     * Verifies that a very long booking is kept out of the bitmaps but still blocks the room.
+     */
+    @Test
+    @DisplayName("Add: very long booking should not be spread over the bitmaps")
+    void add_keepsLongBookingOutOfBitmaps() {
+        Room room = new Room("long", "Långbokat rum");
+        index.index(room);
+        Booking booking = new Booking("booking", "long", START_TIME, START_TIME.plusYears(100));
+        room.addBooking(booking);
+        index.add(booking);
+
+        assertThat(index.slotCount()).isZero();
+        assertThat(index.query(END_TIME, END_TIME.plusHours(1)).isAvailable(room, END_TIME, END_TIME.plusHours(1))).isFalse();
+
+        room.removeBooking("booking");
+        index.remove(room, booking);
+
+        assertThat(index.query(END_TIME, END_TIME.plusHours(1)).isAvailable(room, END_TIME, END_TIME.plusHours(1))).isTrue();
+    }
+
+    /**
+     * Verifies that removing a long booking clears what a shorter booking under it left behind.
+     */
+    @Test
+    @DisplayName("Remove: long booking should clear slots of bookings removed under it")
+    void remove_longBooking_clearsSlotsOfShorterBookings() {
+        Room room = new Room("long", "Långbokat rum");
+        index.index(room);
+        Booking shortBooking = new Booking("short", "long", START_TIME, END_TIME);
+        Booking longBooking = new Booking("long", "long", START_TIME, START_TIME.plusYears(1));
+        room.addBooking(shortBooking);
+        index.add(shortBooking);
+        room.addBooking(longBooking);
+        index.add(longBooking);
+
+        room.removeBooking("short");
+        index.remove(room, shortBooking);
+        room.removeBooking("long");
+        index.remove(room, longBooking);
+
+        assertThat(index.query(START_TIME, END_TIME).isAvailable(room, START_TIME, END_TIME)).isTrue();
+    }
+
+    /**
+     * Verifies that a booking added to an indexed room without telling the index is still seen.
+     */
+    @Test
+    @DisplayName("Is available: should detect bookings the index was not told about")
+    void isAvailable_detectsChangesMadeOutsideIndex() {
+        Room room = new Room("room", "Konferensrum");
+        index.index(room);
+
+        room.addBooking(new Booking("booking", "room", START_TIME, END_TIME));
+
+        assertThat(index.query(START_TIME, END_TIME).isAvailable(room, START_TIME, END_TIME)).isFalse();
+    }
+
+    /**
+     * Verifies that a slot whose last booking is removed is dropped from the index.
+     */
+    @Test
+    @DisplayName("Remove: emptied slots should be dropped")
+    void remove_dropsSlotsThatBecomeEmpty() {
+        Room room = new Room("room", "Konferensrum");
+        index.index(room);
+        Booking booking = new Booking("booking", "room", START_TIME, END_TIME);
+        room.addBooking(booking);
+        index.add(booking);
+
+        room.removeBooking("booking");
+        index.remove(room, booking);
+
+        assertThat(index.slotCount()).isZero();
+    }
+
+    /**
+     * Verifies that pruning drops past slots and that windows in pruned time are still answered exactly.
+     */
+    @Test
+    @DisplayName("Prune: past slots should be dropped and checked exactly")
+    void pruneBefore_dropsPastSlots_andChecksPrunedWindowsExactly() {
+        Room room = new Room("room", "Konferensrum");
+        room.addBooking(new Booking("booking", "room", START_TIME, END_TIME));
+        index.index(room);
+
+        index.pruneBefore(END_TIME.plusHours(1));
+
+        assertThat(index.slotCount()).isZero();
+        assertThat(index.query(START_TIME, END_TIME).isAvailable(room, START_TIME, END_TIME)).isFalse();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link RecurringBooking} class.
+ * Tests the arithmetic overlap checks against single windows and other series.
+ */
+@DisplayName("Recurring Booking Tests")
+class RecurringBookingTest {
+
+    private static final LocalDateTime MONDAY_NINE = LocalDateTime.of(2026, 3, 2, 9, 0);
+    private static final LocalDateTime MONDAY_TEN = MONDAY_NINE.plusHours(1);
+    private static final LocalDate UNTIL = MONDAY_NINE.toLocalDate().plusWeeks(4);
+
+    private static RecurringBooking weekly(Set<LocalDate> exceptions) {
+        return new RecurringBooking("weekly", "room_id", MONDAY_NINE, MONDAY_TEN,
+                RecurringBooking.Recurrence.WEEKLY, UNTIL, exceptions);
+    }
+
+    /**
+     * Verifies that windows overlapping a later occurrence are detected, while windows between occurrences are not.
+     */
+    @Test
+    @DisplayName("Overlaps: should detect later occurrences but not the gaps between them")
+    void overlaps_detectsLaterOccurrences() {
+        RecurringBooking series = weekly(Set.of());
+
+        assertThat(series.overlaps(MONDAY_NINE.plusWeeks(3).plusMinutes(30), MONDAY_TEN.plusWeeks(3).plusHours(1))).isTrue();
+        assertThat(series.overlaps(MONDAY_TEN.plusWeeks(3), MONDAY_TEN.plusWeeks(3).plusHours(1))).isTrue();
+        assertThat(series.overlaps(MONDAY_NINE.plusDays(2), MONDAY_NINE.plusDays(5))).isFalse();
+    }
+
+    /**
+     * Verifies that nothing overlaps after the end date or on an exception date.
+     */
+    @Test
+    @DisplayName("Overlaps: should skip exception dates and stop after the end date")
+    void overlaps_skipsExceptionsAndEndsAtUntil() {
+        RecurringBooking series = weekly(Set.of(MONDAY_NINE.toLocalDate().plusWeeks(1)));
+
+        assertThat(series.overlaps(MONDAY_NINE.plusWeeks(1), MONDAY_TEN.plusWeeks(1))).isFalse();
+        assertThat(series.overlaps(MONDAY_NINE.plusWeeks(4), MONDAY_TEN.plusWeeks(4))).isTrue();
+        assertThat(series.overlaps(MONDAY_NINE.plusWeeks(5), MONDAY_TEN.plusWeeks(5))).isFalse();
+        assertThat(series.getOccurrencesBetween(MONDAY_NINE, MONDAY_NINE.plusWeeks(10)))
+                .containsExactly(MONDAY_NINE, MONDAY_NINE.plusWeeks(2), MONDAY_NINE.plusWeeks(3), MONDAY_NINE.plusWeeks(4));
+    }
+
+    /**
+     * Verifies that a daily series only collides with a weekly series when an occurrence lands on the same day and time.
+     */
+    @Test
+    @DisplayName("Overlaps: should compare two series occurrence by occurrence")
+    void overlaps_comparesSeries() {
+        RecurringBooking series = weekly(Set.of());
+        RecurringBooking midweek = new RecurringBooking("midweek", "room_id", MONDAY_NINE.plusDays(1), MONDAY_TEN.plusDays(1),
+                RecurringBooking.Recurrence.DAILY, MONDAY_NINE.toLocalDate().plusDays(5), Set.of());
+        RecurringBooking untilNextWeek = new RecurringBooking("next_week", "room_id", MONDAY_NINE.plusDays(1), MONDAY_TEN.plusDays(1),
+                RecurringBooking.Recurrence.DAILY, MONDAY_NINE.toLocalDate().plusDays(7), Set.of());
+
+        assertThat(series.overlaps(midweek)).isFalse();
+        assertThat(series.overlaps(untilNextWeek)).isTrue();
+        assertThat(untilNextWeek.overlaps(series)).isTrue();
+    }
+
+    /**
+     * Verifies that two series are compared without walking their occurrences, even over a century.
+     */
+    @Test
+    @DisplayName("Overlaps: should compare long series without walking their occurrences")
+    void overlaps_comparesLongSeriesArithmetically() {
+        LocalDate century = MONDAY_NINE.toLocalDate().plusYears(100);
+        RecurringBooking mornings = new RecurringBooking("mornings", "room_id", MONDAY_NINE, MONDAY_TEN,
+                RecurringBooking.Recurrence.DAILY, century, Set.of());
+        RecurringBooking afternoons = new RecurringBooking("afternoons", "room_id", MONDAY_NINE.plusHours(5),
+                MONDAY_TEN.plusHours(5), RecurringBooking.Recurrence.WEEKLY, century, Set.of());
+        RecurringBooking lastDay = new RecurringBooking("last_day", "room_id", century.atTime(9, 30), century.atTime(11, 0),
+                RecurringBooking.Recurrence.WEEKLY, century.plusWeeks(1), Set.of());
+
+        assertThat(mornings.overlaps(afternoons)).isFalse();
+        assertThat(afternoons.overlaps(mornings)).isFalse();
+        assertThat(lastDay.overlaps(mornings)).isTrue();
+    }
+
+    /**
+     * Verifies that a collision only on an exception date of either series is not an overlap.
+     */
+    @Test
+    @DisplayName("Overlaps: should ignore collisions on exception dates")
+    void overlaps_ignoresCollisionsOnExceptionDates() {
+        RecurringBooking series = weekly(Set.of(MONDAY_NINE.toLocalDate().plusWeeks(1)));
+        RecurringBooking nextWeek = new RecurringBooking("next_week", "room_id", MONDAY_NINE.plusDays(6), MONDAY_TEN.plusDays(6),
+                RecurringBooking.Recurrence.DAILY, MONDAY_NINE.toLocalDate().plusDays(12), Set.of());
+
+        assertThat(series.overlaps(nextWeek)).isFalse();
+        assertThat(nextWeek.overlaps(series)).isFalse();
+    }
+
+    /**
+     * Verifies that a series can be cut off after the occurrences that started before a given time.
+     */
+    @Test
+    @DisplayName("Ending before: should keep only occurrences that started before the time")
+    void endingBefore_keepsStartedOccurrences() {
+        RecurringBooking series = weekly(Set.of(MONDAY_NINE.toLocalDate().plusWeeks(3)));
+
+        assertThat(series.endingBefore(MONDAY_NINE)).isNull();
+        assertThat(series.endingBefore(MONDAY_NINE.plusWeeks(1).plusMinutes(1)).getUntil())
+                .isEqualTo(MONDAY_NINE.toLocalDate().plusWeeks(1));
+        assertThat(series.endingBefore(MONDAY_NINE.plusWeeks(2)).getExceptions()).isEmpty();
+        assertThat(series.endingBefore(MONDAY_NINE.plusWeeks(4).plusMinutes(1))).isSameAs(series);
+    }
+}
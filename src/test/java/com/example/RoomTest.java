@@ -0,0 +1,379 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link Room} class.
+ * Tests the interval index used for availability checks and booking lookups.
+ */
+@DisplayName("Room Tests")
+class RoomTest {
+
+    private static final String ROOM_ID = "room_id";
+    private static final LocalDateTime NINE = LocalDateTime.of(2026, 2, 2, 9, 0);
+    private static final LocalDateTime TEN = NINE.plusHours(1);
+    private static final LocalDateTime ELEVEN = NINE.plusHours(2);
+    private static final LocalDateTime TWELVE = NINE.plusHours(3);
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room(ROOM_ID, "Konferensrum");
+    }
+
+    @Nested
+    @DisplayName("Availability Tests")
+    class AvailabilityTests {
+
+        /**
+         * Verifies that a room without bookings is available for any period.
+         */
+        @Test
+        @DisplayName("Is available: empty room should be available")
+        void isAvailable_returnsTrue_whenRoomHasNoBookings() {
+            assertThat(room.isAvailable(NINE, TWELVE)).isTrue();
+        }
+
+        /**
+         * Verifies that the boundaries of a booking are inclusive, as defined by {@link Booking#overlaps}.
+         */
+        @Test
+        @DisplayName("Is available: touching boundaries should count as overlap")
+        void isAvailable_treatsBoundariesAsInclusive() {
+            room.addBooking(new Booking("b1", ROOM_ID, TEN, ELEVEN));
+
+            assertThat(room.isAvailable(NINE, TEN)).isFalse();
+            assertThat(room.isAvailable(ELEVEN, TWELVE)).isFalse();
+            assertThat(room.isAvailable(NINE, TEN.minusMinutes(1))).isTrue();
+            assertThat(room.isAvailable(ELEVEN.plusMinutes(1), TWELVE)).isTrue();
+        }
+
+        /**
+         * Verifies that a long booking stored early in the index still blocks a later window.
+         */
+        @Test
+        @DisplayName("Is available: long booking should block windows it spans")
+        void isAvailable_returnsFalse_whenLongBookingSpansWindow() {
+            room.addBooking(new Booking("long", ROOM_ID, NINE, TWELVE));
+            for (int i = 0; i < 50; i++) {
+                LocalDateTime start = TWELVE.plusHours(i + 1);
+                room.addBooking(new Booking("b" + i, ROOM_ID, start, start.plusMinutes(30)));
+            }
+
+            assertThat(room.isAvailable(ELEVEN, ELEVEN.plusMinutes(10))).isFalse();
+            assertThat(room.getBookingsBetween(TEN, TWELVE.plusMinutes(105)))
+                    .extracting(Booking::getId)
+                    .containsExactly("long", "b0");
+        }
+
+        /**
+         * Verifies that removing a booking frees its period again.
+         */
+        @Test
+        @DisplayName("Is available: removed booking should no longer block")
+        void isAvailable_returnsTrue_afterBookingIsRemoved() {
+            room.addBooking(new Booking("b1", ROOM_ID, TEN, ELEVEN));
+
+            room.removeBooking("b1");
+
+            assertThat(room.isAvailable(TEN, ELEVEN)).isTrue();
+            assertThat(room.getBookings()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Next Available Slot Tests")
+    class NextAvailableSlotTests {
+
+        /**
+         * Verifies that the search skips past consecutive bookings to the first gap that is long enough.
+         */
+        @Test
+        @DisplayName("Find next slot: should skip gaps that are too short")
+        void findNextAvailableSlot_skipsGapsThatAreTooShort() {
+            room.addBooking(new Booking("b1", ROOM_ID, NINE, TEN));
+            room.addBooking(new Booking("b2", ROOM_ID, TEN.plusMinutes(30), ELEVEN));
+
+            assertThat(room.findNextAvailableSlot(Duration.ofMinutes(20), NINE, null))
+                    .isEqualTo(TEN.plusMinutes(1));
+            assertThat(room.findNextAvailableSlot(Duration.ofMinutes(45), NINE, null))
+                    .isEqualTo(ELEVEN.plusMinutes(1));
+        }
+
+        /**
+         * Verifies that no slot is returned when the first fit starts after the latest allowed start.
+         */
+        @Test
+        @DisplayName("Find next slot: should give up after the latest allowed start")
+        void findNextAvailableSlot_returnsNull_whenFitIsAfterLatestStart() {
+            room.addBooking(new Booking("b1", ROOM_ID, NINE, TWELVE));
+
+            assertThat(room.findNextAvailableSlot(Duration.ofHours(1), NINE, ELEVEN)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Snapshot Tests")
+    class SnapshotTests {
+
+        /**
+         * Verifies that a list of bookings taken before a change is not affected by the change.
+         */
+        @Test
+        @DisplayName("Get bookings: earlier results should not change when the room changes")
+        void getBookings_isNotAffectedByLaterChanges() {
+            room.addBooking(new Booking("b1", ROOM_ID, NINE, TEN));
+            List<Booking> before = room.getBookings();
+
+            room.addBooking(new Booking("b2", ROOM_ID, ELEVEN, TWELVE));
+            room.removeBooking("b1");
+
+            assertThat(before).extracting(Booking::getId).containsExactly("b1");
+            assertThat(room.getBookings()).extracting(Booking::getId).containsExactly("b2");
+        }
+
+        /**
+         * Verifies that readers running alongside a writer that keeps moving a booking always see
+         * the old version, the new version or both, never neither.
+         */
+        @Test
+        @DisplayName("Concurrent reads: should never observe a half-applied change")
+        void concurrentReads_neverObserveHalfAppliedChange() throws InterruptedException {
+            room.addBooking(new Booking("moving_0", ROOM_ID, NINE, TEN));
+            Thread writer = Thread.ofPlatform().start(() -> {
+                for (int i = 1; i < 20_000; i++) {
+                    LocalDateTime start = i % 2 == 0 ? NINE : ELEVEN;
+                    // Den nya versionen läggs till innan den gamla tas bort, så det finns alltid en eller två
+                    room.addBooking(new Booking("moving_" + i, ROOM_ID, start, start.plusMinutes(30)));
+                    room.removeBooking("moving_" + (i - 1));
+                }
+            });
+
+            int torn = 0;
+            while (writer.isAlive()) {
+                int size = room.getBookings().size();
+                if (size < 1 || size > 2) {
+                    torn++;
+                }
+            }
+            writer.join();
+
+            assertThat(torn).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    class LookupTests {
+
+        /**
+         * Verifies that bookings can be looked up by id and are listed in start time order.
+         */
+        @Test
+        @DisplayName("Get booking: should find bookings by id and list them by start time")
+        void getBooking_returnsBookingById() {
+            Booking later = new Booking("later", ROOM_ID, ELEVEN, TWELVE);
+            Booking earlier = new Booking("earlier", ROOM_ID, NINE, TEN);
+            room.addBooking(later);
+            room.addBooking(earlier);
+
+            assertThat(room.hasBooking("later")).isTrue();
+            assertThat(room.getBooking("earlier")).isSameAs(earlier);
+            assertThat(room.getBookings()).containsExactly(earlier, later);
+        }
+
+        /**
+         * Verifies that looking up an unknown booking id throws an IllegalArgumentException.
+         */
+        @Test
+        @DisplayName("Get booking: unknown id should throw IllegalArgumentException")
+        void getBooking_throwsException_whenBookingDoesNotExist() {
+            assertThat(room.hasBooking("missing")).isFalse();
+            assertThatThrownBy(() -> room.getBooking("missing"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Bokning finns inte");
+        }
+
+        /**
+         * Verifies that adding a booking under an id that is already taken throws instead of replacing it.
+         */
+        @Test
+        @DisplayName("Add booking: duplicate id should throw IllegalArgumentException")
+        void addBooking_throwsException_whenIdIsTaken() {
+            Booking original = new Booking("b1", ROOM_ID, NINE, TEN);
+            room.addBooking(original);
+
+            assertThatThrownBy(() -> room.addBooking(new Booking("b1", ROOM_ID, ELEVEN, TWELVE)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Bokning med samma id finns redan");
+            assertThat(room.getBookings()).containsExactly(original);
+        }
+
+        /**
+         * Verifies that only bookings which ended before the given time are returned, and that they stay in the room.
+         */
+        @Test
+        @DisplayName("Get ended bookings: should skip ongoing and future bookings")
+        void getBookingsEndedBefore_skipsOngoingAndFutureBookings() {
+            Booking finished = new Booking("finished", ROOM_ID, NINE, TEN);
+            Booking ongoing = new Booking("ongoing", ROOM_ID, NINE, TWELVE);
+            Booking future = new Booking("future", ROOM_ID, TWELVE, TWELVE.plusHours(1));
+            room.addBooking(future);
+            room.addBooking(ongoing);
+            room.addBooking(finished);
+
+            assertThat(room.getBookingsEndedBefore(ELEVEN)).containsExactly(finished);
+            assertThat(room.hasBooking("finished")).isTrue();
+        }
+
+        /**
+         * Verifies that removing a list of bookings skips those no longer in the room.
+         */
+        @Test
+        @DisplayName("Remove bookings: should return only the bookings that were removed")
+        void removeBookings_returnsOnlyRemovedBookings() {
+            Booking finished = new Booking("finished", ROOM_ID, NINE, TEN);
+            Booking cancelled = new Booking("cancelled", ROOM_ID, TEN, ELEVEN);
+            Booking future = new Booking("future", ROOM_ID, TWELVE, TWELVE.plusHours(1));
+            room.addBooking(finished);
+            room.addBooking(future);
+
+            assertThat(room.removeBookings(List.of(finished, cancelled))).containsExactly(finished);
+            assertThat(room.getBookings()).containsExactly(future);
+        }
+    }
+
+    @Nested
+    @DisplayName("Recurring Booking Tests")
+    class RecurringBookingTests {
+
+        private final RecurringBooking daily = new RecurringBooking("daily", ROOM_ID, NINE, TEN,
+                RecurringBooking.Recurrence.DAILY, NINE.toLocalDate().plusDays(9), Set.of());
+
+        /**
+         * Verifies that a recurring booking blocks its later occurrences without being expanded into bookings.
+         */
+        @Test
+        @DisplayName("Is available: recurring booking should block its occurrences")
+        void isAvailable_returnsFalse_forRecurringOccurrence() {
+            room.addRecurringBooking(daily);
+
+            assertThat(room.isAvailable(NINE.plusDays(5).plusMinutes(30), TEN.plusDays(5))).isFalse();
+            assertThat(room.isAvailable(ELEVEN.plusDays(5), TWELVE.plusDays(5))).isTrue();
+            assertThat(room.isAvailable(NINE.plusDays(10), TEN.plusDays(10))).isTrue();
+            assertThat(room.getBookings()).isEmpty();
+        }
+
+        /**
+         * Verifies that a series conflicting with a single booking on one of its dates is not available.
+         */
+        @Test
+        @DisplayName("Is available: series should conflict with a single booking on one of its dates")
+        void isAvailable_returnsFalse_whenSeriesHitsBooking() {
+            room.addBooking(new Booking("b1", ROOM_ID, NINE.plusDays(7), TEN.plusDays(7)));
+
+            assertThat(room.isAvailable(daily)).isFalse();
+        }
+
+        /**
+         * Verifies that the next-slot search jumps past recurring occurrences.
+         */
+        @Test
+        @DisplayName("Find next slot: should skip recurring occurrences")
+        void findNextAvailableSlot_skipsRecurringOccurrences() {
+            room.addRecurringBooking(daily);
+
+            assertThat(room.findNextAvailableSlot(Duration.ofHours(1), NINE.plusDays(3), null))
+                    .isEqualTo(TEN.plusDays(3).plusMinutes(1));
+        }
+
+        /**
+         * Verifies that removing a series frees its occurrences.
+         */
+        @Test
+        @DisplayName("Remove recurring booking: should free its occurrences")
+        void removeRecurringBooking_freesOccurrences() {
+            room.addRecurringBooking(daily);
+
+            room.removeRecurringBooking("daily");
+
+            assertThat(room.hasRecurringBookings()).isFalse();
+            assertThat(room.isAvailable(NINE.plusDays(1), TEN.plusDays(1))).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Change Tracking Tests")
+    class ChangeTrackingTests {
+
+        /**
+         * Verifies that draining returns the changes since the previous drain and then starts over.
+         */
+        @Test
+        @DisplayName("Drain changes: should return changes since the previous drain")
+        void drainChanges_returnsChangesSincePreviousDrain() {
+            Booking first = new Booking("first", ROOM_ID, NINE, TEN);
+            Booking second = new Booking("second", ROOM_ID, ELEVEN, TWELVE);
+            room.addBooking(first);
+            room.drainChanges();
+
+            room.addBooking(second);
+            room.removeBooking("first");
+
+            RoomChanges changes = room.drainChanges();
+            assertThat(changes.removedBookings()).containsExactly(first);
+            assertThat(changes.addedBookings()).containsExactly(second);
+            assertThat(room.drainChanges().isEmpty()).isTrue();
+        }
+
+        /**
+         * Verifies that a booking added and removed between two drains leaves no trace, while a replaced one does.
+         */
+        @Test
+        @DisplayName("Drain changes: should coalesce changes to the same booking")
+        void drainChanges_coalescesChangesToSameBooking() {
+            Booking saved = new Booking("saved", ROOM_ID, NINE, TEN);
+            Booking moved = new Booking("saved", ROOM_ID, ELEVEN, TWELVE);
+            room.addBooking(saved);
+            room.drainChanges();
+
+            room.addBooking(new Booking("temporary", ROOM_ID, TEN, ELEVEN));
+            room.removeBooking("temporary");
+            room.removeBooking("saved");
+            room.addBooking(new Booking("saved", ROOM_ID, TEN, ELEVEN));
+            room.removeBooking("saved");
+            room.addBooking(moved);
+
+            RoomChanges changes = room.drainChanges();
+            assertThat(changes.removedBookings()).containsExactly(saved);
+            assertThat(changes.addedBookings()).containsExactly(moved);
+        }
+
+        /**
+         * Verifies that a room that was never drained does not hold on to its changes.
+         */
+        @Test
+        @DisplayName("Drain changes: should record nothing before the first drain")
+        void drainChanges_recordsNothing_beforeFirstDrain() {
+            for (int i = 0; i < 100; i++) {
+                room.addBooking(new Booking("booking_" + i, ROOM_ID, NINE.plusDays(i), TEN.plusDays(i)));
+            }
+            room.removeBooking("booking_0");
+
+            assertThat(room.drainChanges().isEmpty()).isTrue();
+            assertThat(room.getBookings()).hasSize(99);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link ShardedBookingSystem} class.
+ * Tests routing of bookings to shards and merging of fleet-wide queries.
+ */
+@DisplayName("Sharded Booking System Tests")
+@ExtendWith(MockitoExtension.class)
+class ShardedBookingSystemTest {
+
+    private static final LocalDateTime CURRENT_TIME = LocalDateTime.of(2026, 1, 28, 12, 0);
+    private static final LocalDateTime START_TIME = CURRENT_TIME.plusHours(1);
+    private static final LocalDateTime END_TIME = CURRENT_TIME.plusHours(3);
+    private static final int ROOMS = 8;
+    private static final int SHARDS = 3;
+
+    @Mock
+    NotificationService notificationService;
+    @Mock
+    BookingMetrics metrics;
+
+    private InMemoryRoomRepository roomRepository;
+    private ShardedBookingSystem bookingSystem;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = new InMemoryRoomRepository();
+        for (int i = 0; i < ROOMS; i++) {
+            roomRepository.save(new Room("room_" + i, "Rum " + i));
+        }
+        bookingSystem = new ShardedBookingSystem(() -> CURRENT_TIME, roomRepository, notificationService, SHARDS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bookingSystem.close();
+    }
+
+    /**
+     * Verifies that a booking is stored in the room and that a second overlapping booking is rejected.
+     */
+    @Test
+    @DisplayName("Book room: should book on the owning shard and reject overlaps")
+    void bookRoom_booksRoomAndRejectsOverlap() {
+        assertThat(bookingSystem.bookRoom("room_1", START_TIME, END_TIME).join()).isTrue();
+        assertThat(bookingSystem.bookRoom("room_1", START_TIME, END_TIME).join()).isFalse();
+
+        assertThat(roomRepository.findById("room_1").orElseThrow().getBookings()).hasSize(1);
+    }
+
+    /**
+     * Verifies that invalid input completes the future with the IllegalArgumentException from the shard.
+     */
+    @Test
+    @DisplayName("Book room: invalid input should fail the future")
+    void bookRoom_failsFuture_whenRoomDoesNotExist() {
+        CompletableFuture<Boolean> result = bookingSystem.bookRoom("missing", START_TIME, END_TIME);
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasRootCauseMessage("Rummet existerar inte");
+    }
+
+    /**
+     * Verifies that requests spread over several shards come back in request order.
+     */
+    @Test
+    @DisplayName("Book rooms: results should be in the same order as the requests")
+    void bookRooms_returnsResultsInRequestOrder() {
+        List<BookingRequest> requests = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            requests.add(new BookingRequest("room_" + i, START_TIME, END_TIME));
+        }
+        requests.add(new BookingRequest("room_0", START_TIME, END_TIME));
+        requests.add(new BookingRequest("missing", START_TIME, END_TIME));
+
+        List<BookingResult> results = bookingSystem.bookRooms(requests).join();
+
+        assertThat(results).extracting(BookingResult::request).containsExactlyElementsOf(requests);
+        assertThat(results.subList(0, ROOMS)).allMatch(BookingResult::isBooked);
+        assertThat(results.get(ROOMS).status()).isEqualTo(BookingResult.Status.UNAVAILABLE);
+        assertThat(results.get(ROOMS + 1).status()).isEqualTo(BookingResult.Status.ROOM_NOT_FOUND);
+    }
+
+    /**
+     * Verifies that available rooms are collected from every shard.
+     */
+    @Test
+    @DisplayName("Get available rooms: should merge the rooms of all shards")
+    void getAvailableRooms_mergesAllShards() {
+        bookingSystem.bookRoom("room_2", START_TIME, END_TIME).join();
+
+        List<Room> available = bookingSystem.getAvailableRooms(START_TIME, END_TIME).join();
+
+        assertThat(available).extracting(Room::getId)
+                .hasSize(ROOMS - 1)
+                .doesNotContain("room_2");
+    }
+
+    /**
+     * Verifies that a booking can be cancelled without knowing which shard owns it.
+     */
+    @Test
+    @DisplayName("Cancel booking: should cancel on the shard that owns the booking")
+    void cancelBooking_cancelsOnOwningShard() {
+        bookingSystem.bookRoom("room_5", START_TIME, END_TIME).join();
+        Room room = roomRepository.findById("room_5").orElseThrow();
+        String bookingId = room.getBookings().getFirst().getId();
+
+        assertThat(bookingSystem.cancelBooking(bookingId).join()).isTrue();
+        assertThat(bookingSystem.cancelBooking(bookingId).join()).isFalse();
+        assertThat(room.getBookings()).isEmpty();
+    }
+
+    /**
+     * Verifies that a cancellation only runs on the shard that owns the booking.
+     */
+    @Test
+    @DisplayName("Cancel booking: should only ask the owning shard")
+    void cancelBooking_onlyAsksOwningShard() throws InterruptedException {
+        try (ShardedBookingSystem measured = new ShardedBookingSystem(() -> CURRENT_TIME, roomRepository,
+                notificationService, metrics, SHARDS)) {
+            measured.bookRoom("room_5", START_TIME, END_TIME).join();
+            String bookingId = roomRepository.findById("room_5").orElseThrow().getBookings().getFirst().getId();
+
+            assertThat(measured.cancelBooking(bookingId).join()).isTrue();
+            assertThat(measured.cancelBooking("missing").join()).isFalse();
+        }
+
+        verify(metrics, times(1)).recordLatency(eq(BookingMetrics.Operation.CANCEL_BOOKING), anyLong());
+    }
+
+    /**
+     * Verifies that the shared index is trusted once loaded, so a booking added to a room outside the
+     * booking system is not found.
+     */
+    @Test
+    @DisplayName("Cancel booking: should not find bookings added outside the system")
+    void cancelBooking_doesNotFindBookingAddedOutsideSystem() {
+        bookingSystem.cancelBooking("missing").join();
+        Room room = roomRepository.findById("room_3").orElseThrow();
+        room.addBooking(new Booking("external", "room_3", START_TIME, END_TIME));
+
+        assertThat(bookingSystem.cancelBooking("external").join()).isFalse();
+        assertThat(room.getBookings()).hasSize(1);
+    }
+
+    /**
+     * Verifies that bookings already in the repository when the system is created can be cancelled,
+     * whichever shard owns their room.
+     */
+    @Test
+    @DisplayName("Cancel booking: should find bookings that existed before the system was created")
+    void cancelBooking_findsBookingsThatExistedBeforeCreation() throws InterruptedException {
+        for (int i = 0; i < ROOMS; i++) {
+            roomRepository.findById("room_" + i).orElseThrow()
+                    .addBooking(new Booking("existing_" + i, "room_" + i, START_TIME, END_TIME));
+        }
+
+        try (ShardedBookingSystem created = new ShardedBookingSystem(() -> CURRENT_TIME, roomRepository,
+                notificationService, SHARDS)) {
+            for (int i = 0; i < ROOMS; i++) {
+                assertThat(created.cancelBooking("existing_" + i).join()).isTrue();
+            }
+        }
+
+        assertThat(roomRepository.findAll()).allMatch(room -> room.getBookings().isEmpty());
+    }
+}
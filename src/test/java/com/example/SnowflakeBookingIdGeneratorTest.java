@@ -0,0 +1,155 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link SnowflakeBookingIdGenerator} class.
+ * Tests ordering, uniqueness and the compact storage of the generated ids in {@link Booking}.
+ */
+@DisplayName("Snowflake Booking Id Generator Tests")
+class SnowflakeBookingIdGeneratorTest {
+
+    private static final long NOW = SnowflakeBookingIdGenerator.EPOCH_MILLIS + 1_000;
+
+    /**
+     * Verifies that ids keep increasing when more ids are taken in one millisecond than the sequence can hold,
+     * and that the string form sorts the same way as the numbers.
+     */
+    @Test
+    @DisplayName("Next id: should keep increasing within one millisecond")
+    void nextId_increasesWithinOneMillisecond() {
+        SnowflakeBookingIdGenerator generator = new SnowflakeBookingIdGenerator(3, () -> NOW);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids.getFirst()).hasSize(16);
+    }
+
+    /**
+     * Verifies that a later clock reading gives a larger id and that the node number is part of the id.
+     */
+    @Test
+    @DisplayName("Next id: should encode time and node")
+    void nextLongId_encodesTimeAndNode() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeBookingIdGenerator generator = new SnowflakeBookingIdGenerator(5, clock::get);
+
+        long first = generator.nextLongId();
+        clock.addAndGet(1);
+        long second = generator.nextLongId();
+
+        assertThat(second).isGreaterThan(first);
+        assertThat(first >>> 22).isEqualTo(1_000);
+        assertThat((first >>> 12) & SnowflakeBookingIdGenerator.MAX_NODE).isEqualTo(5);
+    }
+
+    /**
+     * Verifies that threads taking ids at the same time never get the same id.
+     */
+    @Test
+    @DisplayName("Next id: should be unique across threads")
+    void nextId_isUniqueAcrossThreads() throws Exception {
+        SnowflakeBookingIdGenerator generator = new SnowflakeBookingIdGenerator(1);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(ids).hasSize(80_000);
+    }
+
+    /**
+     * Verifies that a booking keeps a generated id as the exact same string.
+     */
+    @Test
+    @DisplayName("Booking: should return the generated id unchanged")
+    void booking_returnsGeneratedIdUnchanged() {
+        String id = new SnowflakeBookingIdGenerator(1).nextId();
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+        Booking booking = new Booking(id, "room_id", start, start.plusHours(1));
+
+        assertThat(booking.getId()).isEqualTo(id);
+        assertThat(Booking.idKey(id)).isEqualTo(booking.idKey());
+    }
+
+    /**
+     * Verifies that threads on different stripes take ids from their own part of the sequence, so
+     * their ids within one millisecond never meet.
+     */
+    @Test
+    @DisplayName("Next id: threads should take ids from their own stripe")
+    void nextLongId_takesIdsFromStripeOfThread() throws Exception {
+        SnowflakeBookingIdGenerator generator = new SnowflakeBookingIdGenerator(1, () -> NOW);
+        Set<Long> stripes = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    long expected = Thread.currentThread().threadId() & (SnowflakeBookingIdGenerator.STRIPES - 1);
+                    for (int i = 0; i < 100; i++) {
+                        long stripe = (generator.nextLongId() >>> 8) & (SnowflakeBookingIdGenerator.STRIPES - 1);
+                        assertThat(stripe).isEqualTo(expected);
+                    }
+                    stripes.add(expected);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertThat(stripes).isNotEmpty();
+    }
+
+    /**
+     * Verifies that the process-wide generator is created once and reused.
+     */
+    @Test
+    @DisplayName("Shared: should return the same generator every time")
+    void shared_returnsSameGenerator() {
+        assertThat(SnowflakeBookingIdGenerator.shared()).isSameAs(SnowflakeBookingIdGenerator.shared());
+        assertThat(SnowflakeBookingIdGenerator.shared().nextId()).hasSize(16);
+    }
+
+    /**
+     * Verifies that a node number outside the available bits is rejected.
+     */
+    @Test
+    @DisplayName("Constructor: node out of range should throw IllegalArgumentException")
+    void constructor_throwsException_whenNodeIsOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeBookingIdGenerator(SnowflakeBookingIdGenerator.MAX_NODE + 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Node must be between 0 and 1023");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@link UtilizationAnalytics} class.
+ * Tests utilization per room, per day and per hour of the week.
+ */
+@DisplayName("Utilization Analytics Tests")
+@ExtendWith(MockitoExtension.class)
+class UtilizationAnalyticsTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+
+    @Mock
+    RoomRepository roomRepository;
+
+    /**
+     * Verifies that overlapping bookings in a room are only counted once and that the hour buckets
+     * are computed across rooms.
+     */
+    @Test
+    @DisplayName("Analyze: should count overlapping bookings once and fill the heatmap")
+    void analyze_countsOverlapOnce_andFillsHeatmap() {
+        Room first = new Room("first", "Första rummet");
+        first.addBooking(new Booking("b1", "first", MONDAY.plusHours(9), MONDAY.plusHours(11)));
+        first.addBooking(new Booking("b2", "first", MONDAY.plusHours(10), MONDAY.plusHours(12)));
+        Room second = new Room("second", "Andra rummet");
+        second.addBooking(new Booking("b3", "second", MONDAY.plusHours(9), MONDAY.plusHours(10)));
+        when(roomRepository.findAll()).thenReturn(List.of(first, second));
+
+        UtilizationReport report = new UtilizationAnalytics(roomRepository).analyze(MONDAY, MONDAY.plusDays(1));
+
+        assertThat(report.getUtilizationByRoom().get("first")).isCloseTo(12.5, within(1e-9));
+        assertThat(report.getUtilizationByRoom().get("second")).isCloseTo(100.0 / 24, within(1e-9));
+        assertThat(report.getUtilization(DayOfWeek.MONDAY, 9)).isEqualTo(100.0);
+        assertThat(report.getUtilization(DayOfWeek.MONDAY, 11)).isEqualTo(50.0);
+        assertThat(report.getHeatmap()[0][8]).isZero();
+        assertThat(report.getPeakHour()).isEqualTo(9);
+    }
+
+    /**
+     * Verifies that recurring occurrences and archived bookings are included per day.
+     */
+    @Test
+    @DisplayName("Analyze: should include recurring occurrences and archived bookings")
+    void analyze_includesRecurringAndArchivedBookings() {
+        Room room = new Room("room_id", "Konferensrum");
+        room.addRecurringBooking(new RecurringBooking("daily", "room_id", MONDAY.plusHours(8), MONDAY.plusHours(14),
+                RecurringBooking.Recurrence.DAILY, MONDAY.toLocalDate().plusDays(1), Set.of()));
+        InMemoryBookingArchive archive = new InMemoryBookingArchive();
+        archive.archive(List.of(new Booking("old", "room_id", MONDAY.minusDays(1), MONDAY.minusHours(12))));
+        when(roomRepository.findAll()).thenReturn(List.of(room));
+
+        UtilizationReport report = new UtilizationAnalytics(roomRepository, archive)
+                .analyze(MONDAY.minusDays(1), MONDAY.plusDays(3));
+
+        assertThat(report.getUtilizationByDay()).containsExactly(
+                entry(MONDAY.minusDays(1), 50.0),
+                entry(MONDAY, 25.0),
+                entry(MONDAY.plusDays(1), 25.0),
+                entry(MONDAY.plusDays(2), 0.0));
+        assertThat(report.getUtilization()).isCloseTo(25.0, within(1e-9));
+    }
+
+    /**
+     * Verifies that an empty period is rejected.
+     */
+    @Test
+    @DisplayName("Analyze: end not after start should throw IllegalArgumentException")
+    void analyze_throwsException_whenPeriodIsEmpty() {
+        UtilizationAnalytics analytics = new UtilizationAnalytics(roomRepository);
+
+        assertThatThrownBy(() -> analytics.analyze(MONDAY, MONDAY))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Sluttid måste vara efter starttid");
+    }
+
+    private static Map.Entry<LocalDate, Double> entry(LocalDateTime day, double utilization) {
+        return Map.entry(day.toLocalDate(), utilization);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.payment;
+
+import com.example.NotificationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link AsyncPaymentProcessor} class.
+ * Tests the concurrency limit, the stage timeouts and that the email does not delay the result.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Async Payment Processor Tests")
+class AsyncPaymentProcessorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    private PaymentApi paymentApi;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private PaymentCredentials paymentCredentials;
+
+    private AsyncPaymentProcessor paymentProcessor;
+
+    @AfterEach
+    void tearDown() {
+        if (paymentProcessor != null) {
+            paymentProcessor.close();
+        }
+    }
+
+    /**
+     * Verifies that a successful payment is saved and the future completes with true.
+     */
+    @Test
+    @DisplayName("Process payment: Should complete with true when API returns success")
+    void processPayment_completesWithTrue_whenResponseIsSuccess() throws Exception {
+        paymentProcessor = new AsyncPaymentProcessor(paymentApi, paymentRepository, paymentCredentials, emailService,
+                4, TIMEOUT, TIMEOUT);
+        when(paymentApi.charge(any(), eq(1.2))).thenReturn(new PaymentApiResponse(true));
+
+        assertThat(paymentProcessor.processPayment(1.2).get(5, TimeUnit.SECONDS)).isTrue();
+
+        verify(paymentRepository).save(1.2, PaymentStatus.SUCCESS.toString());
+        verify(emailService, timeout(5000)).sendPaymentConfirmation(any(), eq(1.2));
+    }
+
+    /**
+     * Verifies that the future completes once the payment is saved, while the email is still being sent.
+     */
+    @Test
+    @DisplayName("Process payment: Should not wait for the confirmation email")
+    void processPayment_completesBeforeEmailIsSent() throws Exception {
+        paymentProcessor = new AsyncPaymentProcessor(paymentApi, paymentRepository, paymentCredentials, emailService,
+                4, TIMEOUT, TIMEOUT);
+        CountDownLatch emailBlocked = new CountDownLatch(1);
+        when(paymentApi.charge(any(), eq(1.2))).thenReturn(new PaymentApiResponse(true));
+        doAnswer(invocation -> {
+            emailBlocked.await();
+            return null;
+        }).when(emailService).sendPaymentConfirmation(any(), anyDouble());
+
+        CompletableFuture<Boolean> result = paymentProcessor.processPayment(1.2);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        emailBlocked.countDown();
+    }
+
+    /**
+     * Verifies that a charge that exceeds its timeout is saved as a failure.
+     */
+    @Test
+    @DisplayName("Process payment: Should record failure when charge times out")
+    void processPayment_recordsFailure_whenChargeTimesOut() throws Exception {
+        paymentProcessor = new AsyncPaymentProcessor(paymentApi, paymentRepository, paymentCredentials, emailService,
+                4, Duration.ofMillis(50), TIMEOUT);
+        when(paymentApi.charge(any(), eq(1.2))).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return new PaymentApiResponse(true);
+        });
+
+        assertThat(paymentProcessor.processPayment(1.2).get(5, TimeUnit.SECONDS)).isFalse();
+
+        verify(paymentRepository).save(1.2, PaymentStatus.FAILURE.toString());
+        verifyNoInteractions(emailService);
+    }
+
+    /**
+     * Verifies that the future fails when saving the outcome exceeds its timeout.
+     */
+    @Test
+    @DisplayName("Process payment: Should fail when save times out")
+    void processPayment_fails_whenSaveTimesOut() throws NotificationException {
+        paymentProcessor = new AsyncPaymentProcessor(paymentApi, paymentRepository, paymentCredentials, emailService,
+                4, TIMEOUT, Duration.ofMillis(50));
+        when(paymentApi.charge(any(), eq(1.2))).thenReturn(new PaymentApiResponse(true));
+        when(paymentRepository.save(anyDouble(), any())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return true;
+        });
+
+        assertThatThrownBy(() -> paymentProcessor.processPayment(1.2).get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        verify(emailService, never()).sendPaymentConfirmation(any(), anyDouble());
+    }
+
+    /**
+     * Verifies that no more payments than the limit are charged at the same time.
+     */
+    @Test
+    @DisplayName("Process payment: Should respect the concurrency limit")
+    void processPayment_respectsConcurrencyLimit() throws Exception {
+        paymentProcessor = new AsyncPaymentProcessor(paymentApi, paymentRepository, paymentCredentials, emailService,
+                2, TIMEOUT, TIMEOUT);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(paymentApi.charge(any(), anyDouble())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new PaymentApiResponse(true);
+        });
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            results.add(paymentProcessor.processPayment(i));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    /**
+     * Verifies that an invalid amount is rejected before anything is started.
+     */
+    @Test
+    @DisplayName("Process payment: Zero amount should throw IllegalArgumentException")
+    void processPayment_throwsException_ifAmountIsZero() {
+        paymentProcessor = new AsyncPaymentProcessor(paymentApi, paymentRepository, paymentCredentials, emailService,
+                4, TIMEOUT, TIMEOUT);
+
+        assertThatThrownBy(() -> paymentProcessor.processPayment(0.0))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Amount must be positive");
+        verifyNoInteractions(paymentApi);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link BatchingPaymentRepository} class.
+ * Tests that concurrent saves share one write and that each caller gets its own result.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batching Payment Repository Tests")
+class BatchingPaymentRepositoryTest {
+
+    @Mock
+    private PaymentRepository delegate;
+
+    /**
+     * Verifies that concurrent saves are written together once the batch is full.
+     */
+    @Test
+    @DisplayName("Save: Should group concurrent saves into one write")
+    void save_groupsConcurrentSaves() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        when(delegate.saveAll(any())).thenAnswer(invocation -> {
+            List<PaymentRecord> payments = invocation.getArgument(0);
+            batchSizes.add(payments.size());
+            return Collections.nCopies(payments.size(), true);
+        });
+
+        try (BatchingPaymentRepository repository = new BatchingPaymentRepository(delegate, 10, 1, TimeUnit.HOURS);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 1; i <= 10; i++) {
+                double amount = i;
+                results.add(executor.submit(() -> repository.save(amount, PaymentStatus.SUCCESS.toString())));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+
+        assertThat(batchSizes).containsExactly(10);
+        verify(delegate, never()).save(anyDouble(), any());
+    }
+
+    /**
+     * Verifies that a lone save is written once the maximum delay has passed.
+     */
+    @Test
+    @DisplayName("Save: Should write a partial batch after the maximum delay")
+    void save_writesPartialBatch_afterMaxDelay() throws InterruptedException {
+        PaymentRecord payment = new PaymentRecord(1.2, PaymentStatus.SUCCESS.toString());
+        when(delegate.saveAll(List.of(payment))).thenReturn(List.of(true));
+
+        try (BatchingPaymentRepository repository = new BatchingPaymentRepository(delegate, 100, 20, TimeUnit.MILLISECONDS)) {
+            assertThat(repository.save(1.2, PaymentStatus.SUCCESS.toString())).isTrue();
+        }
+    }
+
+    /**
+     * Verifies that each payment in a batch gets its own result.
+     */
+    @Test
+    @DisplayName("Save all: Should return the result of each payment")
+    void saveAll_returnsResultOfEachPayment() throws InterruptedException {
+        List<PaymentRecord> payments = List.of(
+                new PaymentRecord(1.0, PaymentStatus.SUCCESS.toString()),
+                new PaymentRecord(2.0, PaymentStatus.FAILURE.toString()));
+        when(delegate.saveAll(payments)).thenReturn(List.of(true, false));
+
+        try (BatchingPaymentRepository repository = new BatchingPaymentRepository(delegate, 2, 1, TimeUnit.HOURS)) {
+            assertThat(repository.saveAll(payments)).containsExactly(true, false);
+        }
+    }
+
+    /**
+     * Verifies that a failed write is reported to every caller in the batch.
+     */
+    @Test
+    @DisplayName("Save: Should throw when the write fails")
+    void save_throwsException_whenWriteFails() throws InterruptedException {
+        when(delegate.saveAll(any())).thenThrow(new IllegalStateException("Disk full"));
+
+        try (BatchingPaymentRepository repository = new BatchingPaymentRepository(delegate, 1, 0, TimeUnit.MILLISECONDS)) {
+            assertThatThrownBy(() -> repository.save(1.2, PaymentStatus.SUCCESS.toString()))
+                    .isInstanceOf(IllegalStateException.class).hasMessage("Disk full");
+        }
+    }
+
+    /**
+     * Verifies that saving after close is rejected.
+     */
+    @Test
+    @DisplayName("Save: Should throw after close")
+    void save_throwsException_afterClose() throws InterruptedException {
+        BatchingPaymentRepository repository = new BatchingPaymentRepository(delegate, 10, 1, TimeUnit.HOURS);
+        repository.close();
+
+        assertThatThrownBy(() -> repository.save(1.2, PaymentStatus.SUCCESS.toString()))
+                .isInstanceOf(IllegalStateException.class).hasMessage("Repository is closed");
+        verifyNoInteractions(delegate);
+    }
+}
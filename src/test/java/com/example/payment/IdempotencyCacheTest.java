@@ -0,0 +1,187 @@
+package com.example.payment;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the {@link IdempotencyCache} class.
+ * Tests that duplicates share one attempt, and that outcomes expire and are bounded in number.
+ */
+@DisplayName("Idempotency Cache Tests")
+class IdempotencyCacheTest {
+
+    /**
+     * Clock whose time only moves when the test advances it.
+     */
+    private static final class ManualClock extends Clock {
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2026-01-28T12:00:00Z").toEpochMilli());
+
+        void advance(Duration amount) {
+            millis.addAndGet(amount.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    /**
+     * Verifies that a duplicate arriving while the first attempt runs waits for its outcome.
+     */
+    @Test
+    @DisplayName("Get or compute: concurrent duplicate should wait for the first attempt")
+    void getOrCompute_concurrentDuplicateWaitsForFirstAttempt() throws Exception {
+        IdempotencyCache<Boolean> cache = new IdempotencyCache<>(clock, 10, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Boolean> first = executor.submit(() -> cache.getOrCompute("key", () -> {
+                attempts.incrementAndGet();
+                started.countDown();
+                awaitUninterruptibly(release);
+                return true;
+            }));
+            started.await(5, TimeUnit.SECONDS);
+            Future<Boolean> duplicate = executor.submit(() -> cache.getOrCompute("key", () -> {
+                attempts.incrementAndGet();
+                return false;
+            }));
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(duplicate.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that an outcome is reused until it expires.
+     */
+    @Test
+    @DisplayName("Get or compute: should reuse the outcome until it expires")
+    void getOrCompute_reusesOutcome_untilItExpires() {
+        IdempotencyCache<Integer> cache = new IdempotencyCache<>(clock, 10, Duration.ofMinutes(10));
+
+        assertThat(cache.getOrCompute("key", attempts::incrementAndGet)).isEqualTo(1);
+        clock.advance(Duration.ofMinutes(9));
+        assertThat(cache.getOrCompute("key", attempts::incrementAndGet)).isEqualTo(1);
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(cache.getOrCompute("key", attempts::incrementAndGet)).isEqualTo(2);
+    }
+
+    /**
+     * Verifies that the oldest outcome is dropped when the cache is full.
+     */
+    @Test
+    @DisplayName("Get or compute: should drop the oldest outcome when full")
+    void getOrCompute_dropsOldestOutcome_whenFull() {
+        IdempotencyCache<Integer> cache = new IdempotencyCache<>(clock, 2, Duration.ofHours(1));
+
+        cache.getOrCompute("first", attempts::incrementAndGet);
+        cache.getOrCompute("second", attempts::incrementAndGet);
+        cache.getOrCompute("third", attempts::incrementAndGet);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getOrCompute("second", attempts::incrementAndGet)).isEqualTo(2);
+        assertThat(cache.getOrCompute("first", attempts::incrementAndGet)).isEqualTo(4);
+    }
+
+    /**
+     * Verifies that an attempt that throws before recording an outcome is forgotten and run again.
+     */
+    @Test
+    @DisplayName("Get or compute: should retry an attempt that threw before recording")
+    void getOrCompute_retries_whenAttemptThrowsBeforeRecording() {
+        IdempotencyCache<Integer> cache = new IdempotencyCache<>(clock, 10, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> cache.getOrCompute("key", "request", outcome -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Gateway unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.getOrCompute("key", "request", outcome -> attempts.incrementAndGet())).isEqualTo(2);
+    }
+
+    /**
+     * Verifies that an outcome recorded before the attempt threw is kept and reused.
+     */
+    @Test
+    @DisplayName("Get or compute: should keep an outcome recorded before the attempt threw")
+    void getOrCompute_keepsRecordedOutcome_whenAttemptThrowsAfterRecording() {
+        IdempotencyCache<Integer> cache = new IdempotencyCache<>(clock, 10, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> cache.getOrCompute("key", "request", outcome -> {
+            outcome.accept(attempts.incrementAndGet());
+            throw new IllegalStateException("Database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.getOrCompute("key", "request", outcome -> attempts.incrementAndGet())).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that a key cannot be reused for a different request.
+     */
+    @Test
+    @DisplayName("Get or compute: should reject a key reused for a different request")
+    void getOrCompute_throwsException_whenKeyIsReusedForDifferentRequest() {
+        IdempotencyCache<Integer> cache = new IdempotencyCache<>(clock, 10, Duration.ofHours(1));
+        cache.getOrCompute("key", 1.2, outcome -> attempts.incrementAndGet());
+
+        assertThatThrownBy(() -> cache.getOrCompute("key", 3.4, outcome -> attempts.incrementAndGet()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Idempotency key was already used for a different request");
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    /**
+     * Verifies that a missing key is rejected.
+     */
+    @Test
+    @DisplayName("Get or compute: should reject a blank key")
+    void getOrCompute_throwsException_forBlankKey() {
+        IdempotencyCache<Integer> cache = new IdempotencyCache<>(clock, 10, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> cache.getOrCompute(" ", attempts::incrementAndGet))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Idempotency key is required");
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
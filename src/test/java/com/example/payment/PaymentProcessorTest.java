@@ -6,8 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
@@ -24,6 +33,8 @@ class PaymentProcessorTest {
     private EmailService emailService;
     @Mock
     private PaymentCredentials paymentCredentials;
+    @Spy
+    private IdempotencyCache<Boolean> idempotencyCache = new IdempotencyCache<>(100, Duration.ofHours(1));
 
     @InjectMocks
     PaymentProcessor paymentProcessor;
@@ -119,4 +130,171 @@ class PaymentProcessorTest {
         assertThat(result).isTrue();
         verify(paymentRepository).save(amount, PaymentStatus.SUCCESS.toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that without a batch API every amount is charged singly and the results keep the input order.
+     */
+    @Test
+    @DisplayName("Process payments: Should charge singly and return results in order")
+    void processPayments_chargesSingly_andKeepsOrder() {
+        when(paymentApi.charge(any(), eq(1.0))).thenReturn(new PaymentApiResponse(true));
+        when(paymentApi.charge(any(), eq(2.0))).thenReturn(new PaymentApiResponse(false));
+        when(paymentApi.charge(any(), eq(3.0))).thenThrow(new RuntimeException());
+
+        List<Boolean> results = paymentProcessor.processPayments(List.of(1.0, 2.0, 3.0));
+
+        assertThat(results).containsExactly(true, false, false);
+        verify(paymentRepository).save(1.0, PaymentStatus.SUCCESS.toString());
+        verify(paymentRepository).save(2.0, PaymentStatus.FAILURE.toString());
+        verify(paymentRepository).save(3.0, PaymentStatus.FAILURE.toString());
+    }
+
+    /**
+     * Verifies that a batch API is charged, and the outcomes saved, once per batch instead of once per amount.
+     */
+    @Test
+    @DisplayName("Process payments: Should charge a batch API and save the batch in one call each")
+    void processPayments_usesBatchApi() throws NotificationException {
+        BatchPaymentApi batchPaymentApi = mock(BatchPaymentApi.class);
+        PaymentProcessor processor = new PaymentProcessor(batchPaymentApi, paymentRepository, paymentCredentials, emailService);
+        when(batchPaymentApi.chargeAll(any(), eq(List.of(1.0, 2.0))))
+                .thenReturn(List.of(new PaymentApiResponse(false), new PaymentApiResponse(true)));
+
+        List<Boolean> results = processor.processPayments(List.of(1.0, 2.0));
+
+        assertThat(results).containsExactly(false, true);
+        verify(batchPaymentApi, never()).charge(any(), anyDouble());
+        verify(paymentRepository).saveAll(List.of(
+                new PaymentRecord(1.0, PaymentStatus.FAILURE.toString()),
+                new PaymentRecord(2.0, PaymentStatus.SUCCESS.toString())));
+        verify(emailService, times(1)).sendPaymentConfirmation(any(), eq(2.0));
+    }
+
+    /**
+     * Verifies that a slow confirmation email from one batch does not hold up charging the next batch.
+     */
+    @Test
+    @DisplayName("Process payments: Confirmations should not hold up the next batch")
+    void processPayments_chargesNextBatch_whileConfirmationsAreSent() throws Exception {
+        BatchPaymentApi batchPaymentApi = mock(BatchPaymentApi.class);
+        PaymentProcessor processor = new PaymentProcessor(batchPaymentApi, paymentRepository, paymentCredentials, emailService);
+        CountDownLatch secondBatchCharged = new CountDownLatch(1);
+        AtomicBoolean sentWhileCharging = new AtomicBoolean();
+        when(batchPaymentApi.chargeAll(any(), any())).thenAnswer(invocation -> {
+            List<Double> batch = invocation.getArgument(1);
+            if (batch.size() < PaymentProcessor.BATCH_SIZE) {
+                secondBatchCharged.countDown();
+            }
+            // Bara det första beloppet lyckas, så det skickas en enda bekräftelse
+            return batch.stream().map(amount -> new PaymentApiResponse(amount == 2.0)).toList();
+        });
+        doAnswer(invocation -> {
+            sentWhileCharging.set(secondBatchCharged.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(emailService).sendPaymentConfirmation(any(), anyDouble());
+        List<Double> amounts = new ArrayList<>(Collections.nCopies(PaymentProcessor.BATCH_SIZE + 1, 1.0));
+        amounts.set(0, 2.0);
+
+        List<Boolean> results = processor.processPayments(amounts);
+
+        assertThat(results.getFirst()).isTrue();
+        assertThat(sentWhileCharging).isTrue();
+        verify(emailService, times(1)).sendPaymentConfirmation(any(), eq(2.0));
+    }
+
+    /**
+     * Verifies that every payment in a batch is recorded as a failure when the batch call throws.
+     */
+    @Test
+    @DisplayName("Process payments: Should record failures when batch call throws")
+    void processPayments_recordsFailures_whenBatchThrows() {
+        BatchPaymentApi batchPaymentApi = mock(BatchPaymentApi.class);
+        PaymentProcessor processor = new PaymentProcessor(batchPaymentApi, paymentRepository, paymentCredentials, emailService);
+        when(batchPaymentApi.chargeAll(any(), any())).thenThrow(new RuntimeException());
+
+        List<Boolean> results = processor.processPayments(List.of(1.0, 2.0));
+
+        assertThat(results).containsExactly(false, false);
+        verify(paymentRepository).saveAll(List.of(
+                new PaymentRecord(1.0, PaymentStatus.FAILURE.toString()),
+                new PaymentRecord(2.0, PaymentStatus.FAILURE.toString())));
+    }
+
+    /**
+     * Verifies that no payment is charged when any amount in the list is invalid.
+     */
+    @Test
+    @DisplayName("Process payments: Invalid amount should throw before anything is charged")
+    void processPayments_throwsException_beforeCharging_ifAnyAmountIsInvalid() {
+        assertThatThrownBy(() -> paymentProcessor.processPayments(List.of(1.0, 0.0)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Amount must be positive");
+
+        verifyNoInteractions(paymentApi, paymentRepository);
+    }
+
+    /**
+     * Verifies that a null amount is rejected with an IllegalArgumentException before anything is charged.
+     */
+    @Test
+    @DisplayName("Process payments: Null amount should throw IllegalArgumentException")
+    void processPayments_throwsException_ifAnyAmountIsNull() {
+        List<Double> amounts = new ArrayList<>(List.of(1.0));
+        amounts.add(null);
+
+        assertThatThrownBy(() -> paymentProcessor.processPayments(amounts))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Amount is required");
+
+        verifyNoInteractions(paymentApi, paymentRepository);
+    }
+
+    /**
+     * Verifies that a retry with the same idempotency key returns the first outcome without charging again.
+     */
+    @Test
+    @DisplayName("Idempotency: Retry with same key should not charge again")
+    void processPayment_doesNotChargeAgain_forSameIdempotencyKey() {
+        double amount = 1.2;
+        when(paymentApi.charge(any(), eq(amount))).thenReturn(new PaymentApiResponse(true));
+
+        assertThat(paymentProcessor.processPayment("order-1", amount)).isTrue();
+        assertThat(paymentProcessor.processPayment("order-1", amount)).isTrue();
+        assertThat(paymentProcessor.processPayment("order-2", amount)).isTrue();
+
+        verify(paymentApi, times(2)).charge(any(), eq(amount));
+        verify(paymentRepository, times(2)).save(amount, PaymentStatus.SUCCESS.toString());
+    }
+
+    /**
+     * Verifies that a failure after the charge keeps the outcome, so the retry does not charge again.
+     */
+    @Test
+    @DisplayName("Idempotency: Retry after a failure past the charge should not charge again")
+    void processPayment_doesNotChargeAgain_whenSaveFailsAfterCharge() {
+        double amount = 1.2;
+        when(paymentApi.charge(any(), eq(amount))).thenReturn(new PaymentApiResponse(true));
+        when(paymentRepository.save(amount, PaymentStatus.SUCCESS.toString()))
+                .thenThrow(new IllegalStateException("Database unavailable"));
+
+        assertThatThrownBy(() -> paymentProcessor.processPayment("order-1", amount))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(paymentProcessor.processPayment("order-1", amount)).isTrue();
+
+        verify(paymentApi, times(1)).charge(any(), eq(amount));
+    }
+
+    /**
+     * Verifies that an idempotency key cannot be reused for a different amount.
+     */
+    @Test
+    @DisplayName("Idempotency: Same key with a different amount should throw IllegalArgumentException")
+    void processPayment_throwsException_whenKeyIsReusedForDifferentAmount() {
+        when(paymentApi.charge(any(), eq(1.2))).thenReturn(new PaymentApiResponse(true));
+        paymentProcessor.processPayment("order-1", 1.2);
+
+        assertThatThrownBy(() -> paymentProcessor.processPayment("order-1", 3.4))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Idempotency key was already used for a different request");
+
+        verify(paymentApi, never()).charge(any(), eq(3.4));
+    }
+}